@@ -0,0 +1,82 @@
+package com.coderank.executor.execute;
+
+import com.coderank.executor.language.ExecLanguage;
+import com.coderank.executor.quota.ClusterQuotas;
+import com.coderank.executor.quota.QuotaProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * submitAndWait overhead with a stub runner, platform worker pool vs one virtual thread per
+ * execution. The stub sleeps to stand in for blocking container I/O.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+public class OrchestratorBenchmark {
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"0", "5"})
+    public int runMillis;
+
+    private ThreadPoolExecutor pool;
+    private ExecutorService virtualThreads;
+    private LanguageBulkheads lanes;
+    private ExecutionOrchestrator orchestrator;
+    private ExecLanguage lang;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ConcurrentExecProperties props = new ConcurrentExecProperties();
+        props.setThreads(threads);
+        props.setMaxConcurrent(16);
+        props.setAdaptive(false);
+        props.setQueueCapacity(64);
+        props.setSubmitTimeoutMs(1000);
+        props.setPerUserMaxInFlight(Integer.MAX_VALUE);
+
+        ConcurrencyConfig config = new ConcurrencyConfig();
+        pool = config.execPool(props);
+        virtualThreads = config.execVirtualThreads();
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        ConcurrencyLimiter limiter = config.execLimiter(props);
+        ResourceBudgetProperties budgetProps = new ResourceBudgetProperties();
+        budgetProps.setEnabled(false);
+        lanes = new LanguageBulkheads(props, new ExecProperties(), limiter, new ResourceBudget(budgetProps, meters),
+                budgetProps, pool, virtualThreads, meters);
+        DockerRunner stub = new DockerRunner(null, null, null, null, null) {
+            @Override
+            public Result run(ExecLanguage l, String source, String stdin, OutputListener listener) throws InterruptedException {
+                if (runMillis > 0) Thread.sleep(runMillis);
+                return new Result("42\n", "", ExecStatus.SUCCESS, runMillis);
+            }
+        };
+        ClusterQuotas quotas = new ClusterQuotas(new QuotaProperties(), null, meters); // disabled: local caps only
+        orchestrator = new ExecutionOrchestrator(lanes, limiter, stub, props, meters, quotas);
+
+        lang = new ExecLanguage();
+        lang.setCode("python");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        lanes.shutdown();
+        pool.shutdownNow();
+        virtualThreads.shutdownNow();
+    }
+
+    @Benchmark
+    public DockerRunner.Result submitAndWait() {
+        return orchestrator.submitAndWait(null, lang, "print(42)", "");
+    }
+}
@@ -0,0 +1,49 @@
+package com.coderank.executor.execute;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Capturing one output stream of `outputBytes` the way StreamPump does, in reads of up to 64 KB,
+ * then taking the text. live also decodes and forwards every read, as for a streaming client.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OutputCaptureBenchmark {
+
+    @Param({"1024", "1048576"})
+    public int outputBytes;
+
+    @Param({"false", "true"})
+    public boolean live;
+
+    private byte[] output;
+    private OutputListener listener;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        byte[] line = "line of program output ✓\n".getBytes(StandardCharsets.UTF_8);
+        output = new byte[outputBytes];
+        for (int i = 0; i < outputBytes; i++) output[i] = line[i % line.length];
+        listener = live ? (stream, text) -> { } : OutputListener.NONE;
+    }
+
+    @Benchmark
+    public String capture() throws IOException {
+        OutputCapture c = new OutputCapture(output.length + 1L);
+        ByteArrayInputStream in = new ByteArrayInputStream(output);
+        while (c.readFrom(in, 64 * 1024, "stdout", listener) >= 0) { }
+        c.end("stdout", listener);
+        String text = c.text();
+        c.release();
+        return text;
+    }
+}
@@ -0,0 +1,49 @@
+package com.coderank.executor.execute;
+
+import com.coderank.executor.language.ExecLanguage;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What DockerRunner.run does before starting a container: base64 of source and stdin, the
+ * in-place script and the environment, for a program of `sourceBytes` with as much stdin.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScriptBenchmark {
+
+    @Param({"1024", "65536"})
+    public int sourceBytes;
+
+    private DockerRunner runner;
+    private ExecLanguage lang;
+    private String source;
+    private String stdin;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        runner = new DockerRunner(new ExecProperties(), null, null, null, null);
+        lang = new ExecLanguage();
+        lang.setCode("cpp");
+        lang.setFileName("main.cpp");
+        lang.setCompileCmd("g++ -O2 -o /sandbox/main /sandbox/main.cpp");
+        lang.setRunCmd("/sandbox/main");
+        source = "int x = 0; // ünïcödé\n".repeat(Math.max(1, sourceBytes / 24));
+        stdin = "1 2 3 4 5 6 7 8 9\n".repeat(Math.max(1, sourceBytes / 18));
+    }
+
+    @Benchmark
+    public List<String> prepare() {
+        String codeB64 = DockerRunner.b64(source);
+        String stdinB64 = DockerRunner.b64(stdin);
+        List<String> env = DockerRunner.env(codeB64, stdinB64);
+        env.add(runner.inPlace(lang, lang.getCompileCmd()));
+        return env;
+    }
+}
@@ -0,0 +1,72 @@
+package com.coderank.executor.security;
+
+import com.coderank.executor.user.User;
+import com.coderank.executor.user.UserRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.security.Key;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authentication cost per request in JwtAuthenticationFilter. legacy is the former path: two
+ * parses, each with a freshly built parser (its user lookup is left out, so the real gap is
+ * larger). verify is one parse with the shared parser, cached a token seen before. The token version
+ * read is stubbed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtFilterBenchmark {
+    private static final String SECRET = "UmFuZG9tU3VwZXJMb25nU2VjcmV0S2V5MTIzNDU2Nzg5MDEyMzQ1Njc4OTA=";
+
+    @Param({"legacy", "verify", "cached"})
+    public String path;
+
+    private Key key;
+    private JwtService jwt;
+    private JwtAuthenticationFilter filter;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        jwt = new JwtService("coderank", 30, SECRET);
+        UserRepository users = (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("findTokenVersion")) return Optional.of(0);
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        TokenCache tokens = new TokenCache(path.equals("cached") ? 10_000 : 0, 30, new SimpleMeterRegistry());
+        filter = new JwtAuthenticationFilter(jwt, tokens, users);
+
+        User u = new User();
+        u.setId(UUID.randomUUID());
+        u.setEmail("bench@example.com");
+        u.setRole("USER");
+        token = jwt.generateToken(u);
+    }
+
+    @Benchmark
+    public Object authenticate() {
+        if (path.equals("legacy")) return legacy();
+        return filter.authenticate(token);
+    }
+
+    private Object legacy() {
+        String subject = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody().getSubject();
+        Claims claims = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+        return subject.equals(claims.getSubject()) && claims.getExpiration().getTime() > System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,40 @@
+package com.coderank.executor.security;
+
+import com.coderank.executor.user.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/** JwtService on its own: issuing a token at login, and the single verify of a request. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+    private JwtService jwt;
+    private User user;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwt = new JwtService("coderank", 30, "UmFuZG9tU3VwZXJMb25nU2VjcmV0S2V5MTIzNDU2Nzg5MDEyMzQ1Njc4OTA=");
+        user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail("bench@example.com");
+        user.setRole("USER");
+        token = jwt.generateToken(user);
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwt.generateToken(user);
+    }
+
+    @Benchmark
+    public JwtService.Verified verify() {
+        return jwt.verify(token);
+    }
+}
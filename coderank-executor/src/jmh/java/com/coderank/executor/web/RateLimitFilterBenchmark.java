@@ -0,0 +1,61 @@
+package com.coderank.executor.web;
+
+import com.coderank.executor.quota.ClusterQuotas;
+import com.coderank.executor.quota.QuotaProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The whole RateLimitFilter for POST /api/execute under contention: 16 threads, clients spread
+ * over `keys` addresses, local limits only. Limits are high enough that requests pass, so this
+ * is the per-request overhead the filter adds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+public class RateLimitFilterBenchmark {
+    private static final FilterChain PASS = (req, res) -> { };
+
+    @Param({"1", "10000"})
+    public int keys;
+
+    private RateLimitFilter filter;
+    private String[] ips;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        RateLimitProperties props = new RateLimitProperties();
+        props.getExecute().setPerMinute(Integer.MAX_VALUE);
+        props.getExecute().setBurst(1_000_000);
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        filter = new RateLimitFilter(props, new ClusterQuotas(new QuotaProperties(), null, meters), meters);
+        ips = new String[keys];
+        for (int i = 0; i < keys; i++) ips[i] = "10." + (i >> 16 & 255) + "." + (i >> 8 & 255) + "." + (i & 255);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        filter.shutdown();
+    }
+
+    @Benchmark
+    public int doFilter() throws ServletException, IOException {
+        MockHttpServletRequest req = new MockHttpServletRequest("POST", "/api/execute");
+        req.addHeader("X-Forwarded-For", ips[ThreadLocalRandom.current().nextInt(keys)]);
+        MockHttpServletResponse res = new MockHttpServletResponse();
+        filter.doFilter(req, res, PASS);
+        return res.getStatus();
+    }
+}
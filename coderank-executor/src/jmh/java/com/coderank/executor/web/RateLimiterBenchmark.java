@@ -0,0 +1,39 @@
+package com.coderank.executor.web;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RateLimiter.acquire under contention: 16 threads over `keys` distinct keys, from one hot key
+ * (every thread CASing the same bucket) to thousands. Limits are high enough that requests are
+ * mostly allowed, so the CAS path is what is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+public class RateLimiterBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int keys;
+
+    private RateLimiter limiter;
+    private String[] names;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        limiter = new RateLimiter();
+        names = new String[keys];
+        for (int i = 0; i < keys; i++) names[i] = "u:" + i;
+    }
+
+    @Benchmark
+    public RateLimiter.Decision acquire() {
+        return limiter.acquire(names[ThreadLocalRandom.current().nextInt(keys)], Integer.MAX_VALUE, 1_000_000);
+    }
+}
@@ -1,15 +1,19 @@
 package com.coderank.executor.admin;
 
 import com.coderank.executor.admin.dto.UpdateLanguageRequest;
+import com.coderank.executor.execute.ResultCache;
 import com.coderank.executor.language.ExecLanguage;
 import com.coderank.executor.language.ExecLanguageRepository;
+import com.coderank.executor.language.LanguageRegistry;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 @RestController
 @RequestMapping("/api/admin/languages")
@@ -17,8 +21,14 @@ import java.util.Map;
 public class AdminLanguageController {
 
     private final ExecLanguageRepository repo;
+    private final ResultCache resultCache;
+    private final LanguageRegistry registry;
 
-    public AdminLanguageController(ExecLanguageRepository repo) { this.repo = repo; }
+    public AdminLanguageController(ExecLanguageRepository repo, ResultCache resultCache, LanguageRegistry registry) {
+        this.repo = repo;
+        this.resultCache = resultCache;
+        this.registry = registry;
+    }
 
     @GetMapping
     public ResponseEntity<List<ExecLanguage>> listAll() {
@@ -29,6 +39,7 @@ public class AdminLanguageController {
     public ResponseEntity<Map<String, Object>> update(@PathVariable String code,
                                                       @Valid @RequestBody UpdateLanguageRequest req) {
         ExecLanguage lang = repo.findById(code).orElseThrow(() -> new IllegalArgumentException("Language not found: " + code));
+        String before = runtimeFingerprint(lang);
         if (req.getDisplayName() != null) lang.setDisplayName(req.getDisplayName());
         if (req.getImage() != null)       lang.setImage(req.getImage());
         if (req.getFileName() != null)    lang.setFileName(req.getFileName());
@@ -36,12 +47,34 @@ public class AdminLanguageController {
         if (req.getRunCmd() != null)      lang.setRunCmd(req.getRunCmd());
         if (req.getVersion() != null)     lang.setVersion(req.getVersion());
         if (req.getEnabled() != null)     lang.setEnabled(req.getEnabled());
+        if (req.getCpus() != null)        lang.setCpus(req.getCpus());
+        if (req.getMemory() != null)      lang.setMemory(req.getMemory());
+        if (req.getTimeLimitSeconds() != null) lang.setTimeLimitSeconds(req.getTimeLimitSeconds());
+        if (req.getMaxConcurrent() != null)    lang.setMaxConcurrent(req.getMaxConcurrent());
+        if (req.getQueueCapacity() != null)    lang.setQueueCapacity(req.getQueueCapacity());
         repo.save(lang);
-        return ResponseEntity.ok(Map.of(
-                "code", lang.getCode(),
-                "enabled", lang.isEnabled(),
-                "image", lang.getImage(),
-                "version", lang.getVersion()
-        ));
+        registry.changed();
+        if (!before.equals(runtimeFingerprint(lang))) {
+            resultCache.invalidateLanguage(lang.getCode());
+        }
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("code", lang.getCode());
+        out.put("enabled", lang.isEnabled());
+        out.put("image", lang.getImage());
+        out.put("version", lang.getVersion());
+        out.put("cpus", lang.getCpus());
+        out.put("memory", lang.getMemory());
+        out.put("timeLimitSeconds", lang.getTimeLimitSeconds());
+        out.put("maxConcurrent", lang.getMaxConcurrent());
+        out.put("queueCapacity", lang.getQueueCapacity());
+        return ResponseEntity.ok(out);
+    }
+
+    // fields that change what a run produces; cached results are stale once any of them changes
+    private static String runtimeFingerprint(ExecLanguage l) {
+        return String.join("\u0000", l.getImage(), l.getFileName(),
+                Objects.toString(l.getCompileCmd(), ""), l.getRunCmd(),
+                Objects.toString(l.getCpus(), ""), Objects.toString(l.getMemory(), ""),
+                Objects.toString(l.getTimeLimitSeconds(), ""));
     }
 }
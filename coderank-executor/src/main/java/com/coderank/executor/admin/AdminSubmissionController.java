@@ -1,14 +1,16 @@
 package com.coderank.executor.admin;
 
+import com.coderank.executor.submit.BlobStore;
 import com.coderank.executor.submit.Submission;
+import com.coderank.executor.submit.SubmissionListing;
+import com.coderank.executor.submit.SubmissionPage;
 import com.coderank.executor.submit.SubmissionRepository;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/admin/submissions")
@@ -16,15 +18,34 @@ import java.util.List;
 public class AdminSubmissionController {
 
     private final SubmissionRepository submissions;
+    private final SubmissionListing listing;
+    private final BlobStore blobs;
 
-    public AdminSubmissionController(SubmissionRepository submissions) {
+    public AdminSubmissionController(SubmissionRepository submissions, SubmissionListing listing, BlobStore blobs) {
         this.submissions = submissions;
+        this.listing = listing;
+        this.blobs = blobs;
     }
 
+    /** Newest first, without texts; pass nextCursor back as cursor for the following page. */
     @GetMapping
-    public ResponseEntity<List<Submission>> latest(@RequestParam(defaultValue = "20") int limit) {
+    public ResponseEntity<SubmissionPage> latest(@RequestParam(defaultValue = "20") int limit,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(required = false) UUID userId,
+                                                 @RequestParam(required = false) String language,
+                                                 @RequestParam(required = false) String status) {
         int safe = Math.min(Math.max(limit, 1), 200);
-        var page = submissions.findAll(PageRequest.of(0, safe, Sort.by(Sort.Direction.DESC, "createdAt")));
-        return ResponseEntity.ok(page.getContent());
+        return ResponseEntity.ok(listing.page(safe, cursor, userId, language, status));
+    }
+
+    /** One submission with its source, stdin, stdout and stderr. */
+    @GetMapping("/{id}")
+    public ResponseEntity<Submission> get(@PathVariable UUID id) {
+        return submissions.findById(id)
+                .map(s -> {
+                    blobs.preload(List.of(s)); // one query for all four texts
+                    return ResponseEntity.ok(s);
+                })
+                .orElse(ResponseEntity.notFound().build());
     }
 }
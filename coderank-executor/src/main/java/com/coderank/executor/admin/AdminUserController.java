@@ -0,0 +1,31 @@
+package com.coderank.executor.admin;
+
+import com.coderank.executor.security.TokenCache;
+import com.coderank.executor.user.UserRepository;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/admin/users")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminUserController {
+
+    private final UserRepository users;
+    private final TokenCache tokens;
+
+    public AdminUserController(UserRepository users, TokenCache tokens) {
+        this.users = users;
+        this.tokens = tokens;
+    }
+
+    /** Invalidates every token issued to the user so far; needed too for a role change to take effect. */
+    @PostMapping("/{id}/revoke-tokens")
+    public ResponseEntity<Void> revokeTokens(@PathVariable UUID id) {
+        if (users.revokeTokens(id) == 0) throw new IllegalArgumentException("User not found: " + id);
+        tokens.evictUser(id);
+        return ResponseEntity.noContent().build();
+    }
+}
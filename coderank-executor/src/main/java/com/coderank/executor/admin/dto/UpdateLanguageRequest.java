@@ -1,5 +1,9 @@
 package com.coderank.executor.admin.dto;
 
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 
@@ -27,6 +31,22 @@ public class UpdateLanguageRequest {
 
     private Boolean enabled;
 
+    // Resource profile
+    @DecimalMin("0.1") @DecimalMax("8.0")
+    private Double cpus;
+
+    @Pattern(regexp = "^[0-9]+[kmg]$", message = "memory must look like 256m or 1g")
+    private String memory;
+
+    @Min(1) @Max(60)
+    private Integer timeLimitSeconds;
+
+    @Min(1) @Max(256)
+    private Integer maxConcurrent;
+
+    @Min(0) @Max(10000)
+    private Integer queueCapacity;
+
     public String getCode() { return code; }
     public void setCode(String code) { this.code = code; }
     public String getDisplayName() { return displayName; }
@@ -43,4 +63,14 @@ public class UpdateLanguageRequest {
     public void setVersion(String version) { this.version = version; }
     public Boolean getEnabled() { return enabled; }
     public void setEnabled(Boolean enabled) { this.enabled = enabled; }
+    public Double getCpus() { return cpus; }
+    public void setCpus(Double cpus) { this.cpus = cpus; }
+    public String getMemory() { return memory; }
+    public void setMemory(String memory) { this.memory = memory; }
+    public Integer getTimeLimitSeconds() { return timeLimitSeconds; }
+    public void setTimeLimitSeconds(Integer timeLimitSeconds) { this.timeLimitSeconds = timeLimitSeconds; }
+    public Integer getMaxConcurrent() { return maxConcurrent; }
+    public void setMaxConcurrent(Integer maxConcurrent) { this.maxConcurrent = maxConcurrent; }
+    public Integer getQueueCapacity() { return queueCapacity; }
+    public void setQueueCapacity(Integer queueCapacity) { this.queueCapacity = queueCapacity; }
 }
@@ -0,0 +1,47 @@
+package com.coderank.executor.execute;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class BatchExecuteRequest {
+    @NotBlank
+    @Pattern(regexp = "^[a-z]{2,16}$", message = "language must be lowercase a-z, 2..16 chars")
+    private String language;
+
+    @NotBlank
+    @Size(max = 20000)
+    private String source;
+
+    @NotEmpty
+    @Size(max = 50)
+    private List<@Valid Case> cases;
+
+    private boolean stopOnFirstFailure;
+
+    public static class Case {
+        @Size(max = 10000)
+        private String stdin;
+
+        @Size(max = 10000)
+        private String expectedOutput; // optional; compared ignoring trailing whitespace
+
+        public String getStdin() { return stdin; }
+        public void setStdin(String stdin) { this.stdin = stdin; }
+        public String getExpectedOutput() { return expectedOutput; }
+        public void setExpectedOutput(String expectedOutput) { this.expectedOutput = expectedOutput; }
+    }
+
+    public String getLanguage() { return language; }
+    public void setLanguage(String language) { this.language = language; }
+    public String getSource() { return source; }
+    public void setSource(String source) { this.source = source; }
+    public List<Case> getCases() { return cases; }
+    public void setCases(List<Case> cases) { this.cases = cases; }
+    public boolean isStopOnFirstFailure() { return stopOnFirstFailure; }
+    public void setStopOnFirstFailure(boolean stopOnFirstFailure) { this.stopOnFirstFailure = stopOnFirstFailure; }
+}
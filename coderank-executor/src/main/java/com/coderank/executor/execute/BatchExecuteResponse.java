@@ -0,0 +1,38 @@
+package com.coderank.executor.execute;
+
+import java.util.List;
+
+public class BatchExecuteResponse {
+    private final ExecStatus status;
+    private final String stdout;
+    private final String stderr;
+    private final int execTimeMs;
+    private final int passed;
+    private final int total;
+    private final List<DockerRunner.CaseResult> cases;
+
+    public BatchExecuteResponse(ExecStatus status, String stdout, String stderr, int execTimeMs,
+                                int total, List<DockerRunner.CaseResult> cases) {
+        this.status = status;
+        this.stdout = stdout;
+        this.stderr = stderr;
+        this.execTimeMs = execTimeMs;
+        this.passed = (int) cases.stream().filter(c -> Boolean.TRUE.equals(c.passed())).count();
+        this.total = total;
+        this.cases = cases;
+    }
+
+    public static BatchExecuteResponse from(DockerRunner.BatchResult r, int total) {
+        return new BatchExecuteResponse(r.status(), r.stdout(), r.stderr(), r.execTimeMs(), total, r.cases());
+    }
+
+    public ExecStatus getStatus() { return status; }
+    public String getStdout() { return stdout; }
+    public String getStderr() { return stderr; }
+    public int getExecTimeMs() { return execTimeMs; }
+    /** Cases whose output matched the expected output. */
+    public int getPassed() { return passed; }
+    /** Cases in the request; fewer results than this means the run stopped early. */
+    public int getTotal() { return total; }
+    public List<DockerRunner.CaseResult> getCases() { return cases; }
+}
@@ -0,0 +1,129 @@
+package com.coderank.executor.execute;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Per-run resource use read inside the sandbox from its cgroup (v2 cpu.stat / memory.peak,
+ * falling back to v1 cpuacct / memory). The script samples the clock and the CPU counter before
+ * compiling, before running and after running, and prints the samples plus the peak memory at
+ * the end of the compile step and at the end as the last line on stderr, after a per-run tag.
+ * memory.peak cannot be reset from inside the sandbox (its cgroup is mounted read-only), so the
+ * run's own peak is known only when it rose above the compiler's. The tag is the first line of the container's
+ * stdin, read by the script before anything else runs, so it is never in the program's
+ * environment or input and the program cannot print a line carrying it.
+ */
+final class CgroupStats {
+    private final String tag = UUID.randomUUID().toString().replace("-", "");
+
+    // sample: "<clock ns> <cpu usec>", '-' where unavailable
+    private static final String PRELUDE =
+            "crnow() { X=$(date +%s%N 2>/dev/null) || X=; "
+            + "Y=$(sed -n 's/^usage_usec //p' /sys/fs/cgroup/cpu.stat 2>/dev/null) || Y=; "
+            + "if [ -z \"$Y\" ]; then Y=$(cat /sys/fs/cgroup/cpuacct/cpuacct.usage 2>/dev/null) && Y=${Y%???} || Y=; fi; "
+            + "echo \"${X:--} ${Y:--}\"; }; "
+            + "crpeak() { P=$(cat /sys/fs/cgroup/memory.peak 2>/dev/null) "
+            + "|| P=$(cat /sys/fs/cgroup/memory/memory.max_usage_in_bytes 2>/dev/null) || P=; echo \"${P:--}\"; }; "
+            + "S0=$(crnow); S1='- -'; P1=-; ";
+
+    /** The container's stdin: the tag line, then rest (may be null). */
+    byte[] stdin(byte[] rest) {
+        byte[] head = (tag + "\n").getBytes(StandardCharsets.US_ASCII);
+        if (rest == null) return head;
+        byte[] data = new byte[head.length + rest.length];
+        System.arraycopy(head, 0, data, 0, head.length);
+        System.arraycopy(rest, 0, data, head.length, rest.length);
+        return data;
+    }
+
+    /** Goes first in the script, before anything else reads stdin. */
+    static String readTag() {
+        return "read -r T || T=; ";
+    }
+
+    /** Goes before the first step that is measured. */
+    static String prelude() {
+        return PRELUDE;
+    }
+
+    /** Goes between the compile step and the run. */
+    static String compiled() {
+        return "S1=$(crnow); P1=$(crpeak); ";
+    }
+
+    /** Prints the trailer; the script's exit status is kept. */
+    static String trailer() {
+        return "printf '%s %s %s %s %s %s\\n' \"$T\" \"$S0\" \"$S1\" \"$(crnow)\" \"$P1\" \"$(crpeak)\" >&2; ";
+    }
+
+    /** Hides the trailer from live stderr, holding back only text that could be its start. */
+    OutputListener hiding(OutputListener listener) {
+        return new OutputListener() {
+            private final StringBuilder held = new StringBuilder();
+            private boolean done;
+
+            @Override
+            public void onOutput(String stream, String chunk) {
+                if (!"stderr".equals(stream)) {
+                    listener.onOutput(stream, chunk);
+                    return;
+                }
+                if (done) return;
+                held.append(chunk);
+                int i = held.indexOf(tag);
+                if (i >= 0) {
+                    done = true;
+                    if (i > 0) listener.onOutput(stream, held.substring(0, i));
+                    held.setLength(0);
+                    return;
+                }
+                int keep = overlap(held);
+                if (held.length() > keep) {
+                    listener.onOutput(stream, held.substring(0, held.length() - keep));
+                    held.delete(0, held.length() - keep);
+                }
+            }
+        };
+    }
+
+    // longest suffix of s that is a prefix of the tag
+    private int overlap(CharSequence s) {
+        for (int k = Math.min(tag.length() - 1, s.length()); k > 0; k--) {
+            boolean match = true;
+            for (int j = 0; j < k && match; j++) match = s.charAt(s.length() - k + j) == tag.charAt(j);
+            if (match) return k;
+        }
+        return 0;
+    }
+
+    /** stderr without the trailer, and what the trailer reported. */
+    record Parsed(String stderr, DockerRunner.Usage usage) {}
+
+    Parsed parse(String stderr) {
+        int i = stderr.lastIndexOf(tag + " ");
+        if (i < 0) return new Parsed(stderr, DockerRunner.Usage.NONE);
+        String[] f = stderr.substring(i + tag.length() + 1).trim().split("\\s+");
+        if (f.length < 8) return new Parsed(stderr.substring(0, i), DockerRunner.Usage.NONE);
+        Long t0 = number(f[0]), c0 = number(f[1]), t1 = number(f[2]), c1 = number(f[3]);
+        Long t2 = number(f[4]), c2 = number(f[5]), compilePeak = number(f[6]), peak = number(f[7]);
+        // after a compile step, a peak no higher than the compiler's may be the compiler's own
+        Long runPeak = compilePeak == null || (peak != null && peak > compilePeak) ? peak : null;
+        Long runStart = t1 != null ? t1 : t0;
+        Long cpuStart = t1 != null ? c1 : c0;
+        DockerRunner.Usage usage = new DockerRunner.Usage(
+                t1 != null && t0 != null ? (int) ((t1 - t0) / 1_000_000) : null,
+                t2 != null && runStart != null ? (int) ((t2 - runStart) / 1_000_000) : null,
+                c2 != null && cpuStart != null ? (int) ((c2 - cpuStart) / 1000) : null,
+                runPeak != null ? (int) (runPeak / 1024) : null,
+                compilePeak != null ? (int) (compilePeak / 1024) : null);
+        return new Parsed(stderr.substring(0, i), usage);
+    }
+
+    private static Long number(String s) {
+        try {
+            return Long.parseLong(s);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.coderank.executor.execute;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Drives containers by forking the docker CLI. */
+public class CliDockerClient implements DockerClient {
+    private final ExecProperties props;
+
+    public CliDockerClient(ExecProperties props) {
+        this.props = props;
+    }
+
+    @Override
+    public SandboxProcess run(String name, String image, SandboxLimits limits, List<String> env, List<String> cmd,
+                              boolean attachStdin) throws IOException {
+        List<String> c = new ArrayList<>(List.of("docker","run","--rm","--name",name));
+        c.addAll(isolationFlags(props, limits));
+        return start(c, image, env, cmd, attachStdin);
+    }
+
+    @Override
+    public SandboxProcess exec(String container, List<String> env, List<String> cmd, boolean attachStdin) throws IOException {
+        return start(new ArrayList<>(List.of("docker","exec")), container, env, cmd, attachStdin);
+    }
+
+    @Override
+    public boolean startDetached(String name, String image, SandboxLimits limits, List<String> cmd, int timeoutSeconds) {
+        List<String> c = new ArrayList<>(List.of("docker","run","-d","--rm","--name",name));
+        c.addAll(isolationFlags(props, limits));
+        c.add(image);
+        c.addAll(cmd);
+        return call(c, timeoutSeconds) != null;
+    }
+
+    @Override
+    public boolean isRunning(String container) {
+        String out = call(List.of("docker","inspect","-f","{{.State.Running}}",container), 5);
+        return out != null && out.trim().equals("true");
+    }
+
+    @Override
+    public void remove(String container) {
+        call(List.of("docker","rm","-f",container), 5);
+    }
+
+    private static SandboxProcess start(List<String> c, String target, List<String> env, List<String> cmd,
+                                        boolean attachStdin) throws IOException {
+        if (attachStdin) c.add("-i");
+        for (String e : env) c.addAll(List.of("-e", e));
+        c.add(target);
+        c.addAll(cmd);
+        ProcessBuilder pb = new ProcessBuilder(c);
+        pb.redirectErrorStream(false);
+        return new CliProcess(pb.start());
+    }
+
+    static List<String> isolationFlags(ExecProperties props, SandboxLimits limits) {
+        return List.of(
+                "--network","none",
+                "--cpus", String.valueOf(limits.cpus()),
+                "--memory", limits.memory(),
+                "--pids-limit", String.valueOf(props.getPidsLimit()),
+                "--read-only",
+                "--tmpfs","/sandbox:" + tmpfsOptions(props),
+                "--security-opt","no-new-privileges",
+                "--cap-drop","ALL",
+                "-u","10001:10001"
+        );
+    }
+
+    static String tmpfsOptions(ExecProperties props) {
+        return "rw,size=" + props.getTmpfsSizeMb() + "m,exec,noatime,uid=10001,gid=10001,mode=0777";
+    }
+
+    /** Runs a short docker CLI command; returns its stdout on exit 0, otherwise null. */
+    private static String call(List<String> cmd, int timeoutSeconds) {
+        try {
+            Process p = new ProcessBuilder(cmd).redirectErrorStream(true).start();
+            p.getOutputStream().close();
+            if (!p.waitFor(timeoutSeconds, TimeUnit.SECONDS)) {
+                p.destroyForcibly();
+                return null;
+            }
+            try (InputStream in = p.getInputStream()) {
+                String out = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                return p.exitValue() == 0 ? out : null;
+            }
+        } catch (IOException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private record CliProcess(Process p) implements SandboxProcess {
+        @Override public OutputStream stdin() { return p.getOutputStream(); }
+        @Override public InputStream stdout() { return p.getInputStream(); }
+        @Override public InputStream stderr() { return p.getErrorStream(); }
+        @Override public boolean waitFor(long timeout, TimeUnit unit) throws InterruptedException { return p.waitFor(timeout, unit); }
+        @Override public int exitValue() { return p.exitValue(); }
+        @Override public void destroy() { p.destroyForcibly(); }
+    }
+}
@@ -0,0 +1,180 @@
+package com.coderank.executor.execute;
+
+import com.coderank.executor.language.ExecLanguage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Content-addressed cache of compile outputs. Successful compiles are stored on disk as a tar of
+ * /sandbox (LRU, capped by total bytes); compile errors are kept in memory as negative entries.
+ * <p>
+ * Entries are only indexed in memory, so each process keeps its files in a directory of its own
+ * under the configured one, locked while it runs. Directories whose lock is free were left by
+ * processes that are gone: their *.tar and *.part files are deleted on startup. Nothing else
+ * under the configured directory is touched.
+ */
+@Component
+public class CompileCache {
+    private static final Logger log = LoggerFactory.getLogger(CompileCache.class);
+    private static final String DIR_PREFIX = "coderank-cc-";
+    private static final String LOCK = ".lock";
+    private static final String ROOT_LOCK = ".coderank-cc.lock"; // held while a process sweeps and claims its directory
+
+    private final CompileCacheProperties props;
+    private final Path dir;
+    private FileChannel lock; // this process's directory is in use while it is open
+    // access-ordered -> iteration order is least recently used first
+    private final LinkedHashMap<String, Long> artifacts = new LinkedHashMap<>(64, 0.75f, true);
+    private final LinkedHashMap<String, Failure> failures;
+    private long artifactBytes;
+
+    public record Failure(String stdout, String stderr) {}
+
+    public CompileCache(CompileCacheProperties props) {
+        this.props = props;
+        this.failures = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Failure> eldest) {
+                return size() > props.getMaxNegativeEntries();
+            }
+        };
+        this.dir = props.isEnabled() ? openDir(Path.of(props.getDir())) : null;
+    }
+
+    public boolean isEnabled() { return props.isEnabled(); }
+
+    public long getMaxArtifactBytes() { return props.getMaxArtifactBytes(); }
+
+    public static String key(ExecLanguage lang, String source) {
+        return ContentHash.of(lang.getCode(), lang.getImage(), lang.getCompileCmd(), source);
+    }
+
+    /** Returns the stored artifact tar, or null on a miss. */
+    public byte[] getArtifact(String key) {
+        synchronized (this) {
+            if (artifacts.get(key) == null) return null;
+        }
+        try {
+            return Files.readAllBytes(dir.resolve(key + ".tar"));
+        } catch (IOException e) {
+            return null; // evicted concurrently
+        }
+    }
+
+    public synchronized Failure getFailure(String key) {
+        return failures.get(key);
+    }
+
+    public void putArtifact(String key, byte[] tar) {
+        if (tar.length > props.getMaxArtifactBytes()) return;
+        try {
+            Path tmp = Files.createTempFile(dir, key, ".part");
+            Files.write(tmp, tar);
+            Files.move(tmp, dir.resolve(key + ".tar"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to store compile artifact {}: {}", key, e.getMessage());
+            return;
+        }
+        synchronized (this) {
+            Long prev = artifacts.put(key, (long) tar.length);
+            artifactBytes += tar.length - (prev == null ? 0 : prev);
+            evict();
+        }
+    }
+
+    public synchronized void putFailure(String key, String stdout, String stderr) {
+        failures.put(key, new Failure(stdout, stderr));
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> it = artifacts.entrySet().iterator();
+        while (artifactBytes > props.getMaxBytes() && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            it.remove();
+            artifactBytes -= eldest.getValue();
+            try {
+                Files.deleteIfExists(dir.resolve(eldest.getKey() + ".tar"));
+            } catch (IOException e) {
+                log.warn("Failed to delete compile artifact {}: {}", eldest.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    Path dir() { return dir; }
+
+    // under the root lock, so no other process can sweep the new directory before it is locked
+    private Path openDir(Path root) {
+        try {
+            Files.createDirectories(root);
+            try (FileChannel rootLock = FileChannel.open(root.resolve(ROOT_LOCK), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = rootLock.lock()) {
+                sweep(root);
+                Path own = Files.createTempDirectory(root, DIR_PREFIX);
+                lock = FileChannel.open(own.resolve(LOCK), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                lock.lock();
+                return own;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot prepare compile cache dir " + root, e);
+        }
+    }
+
+    private static void sweep(Path root) throws IOException {
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(root, DIR_PREFIX + "*")) {
+            for (Path d : dirs) {
+                if (!Files.isDirectory(d, LinkOption.NOFOLLOW_LINKS) || !Files.exists(d.resolve(LOCK))) continue;
+                try (FileChannel ch = FileChannel.open(d.resolve(LOCK), StandardOpenOption.WRITE);
+                     FileLock held = ch.tryLock()) {
+                    if (held != null) clear(d);
+                } catch (OverlappingFileLockException e) {
+                    // in use by another cache in this JVM
+                }
+            }
+        }
+    }
+
+    // the cache's own files, then the directory if nothing else is in it
+    private static void clear(Path d) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(d, "*.{tar,part}")) {
+            for (Path f : files) Files.deleteIfExists(f);
+        }
+        Files.deleteIfExists(d.resolve(LOCK));
+        try {
+            Files.deleteIfExists(d);
+        } catch (DirectoryNotEmptyException e) {
+            log.warn("Left compile cache dir {} in place: it holds files the cache did not write", d);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (lock == null) return;
+        try (FileChannel ignored = lock) {
+            synchronized (this) {
+                artifacts.clear();
+                artifactBytes = 0;
+            }
+            clear(dir);
+        } catch (IOException e) {
+            log.warn("Failed to clear compile cache dir {}: {}", dir, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.coderank.executor.execute;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.exec.compile-cache")
+public class CompileCacheProperties {
+    private boolean enabled = false;
+    private String dir = System.getProperty("java.io.tmpdir") + "/coderank-compile-cache"; // each process uses a subdirectory
+    private long maxBytes = 256L * 1024 * 1024;       // total artifact bytes kept on disk
+    private long maxArtifactBytes = 8L * 1024 * 1024; // larger outputs are not cached
+    private int maxNegativeEntries = 1000;            // cached compile errors (kept in memory)
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public String getDir() { return dir; }
+    public void setDir(String dir) { this.dir = dir; }
+    public long getMaxBytes() { return maxBytes; }
+    public void setMaxBytes(long maxBytes) { this.maxBytes = maxBytes; }
+    public long getMaxArtifactBytes() { return maxArtifactBytes; }
+    public void setMaxArtifactBytes(long maxArtifactBytes) { this.maxArtifactBytes = maxArtifactBytes; }
+    public int getMaxNegativeEntries() { return maxNegativeEntries; }
+    public void setMaxNegativeEntries(int maxNegativeEntries) { this.maxNegativeEntries = maxNegativeEntries; }
+}
@@ -3,8 +3,9 @@ package com.coderank.executor.execute;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -15,7 +16,6 @@ public class ConcurrencyConfig {
 
     @Bean
     public ThreadPoolExecutor execPool(ConcurrentExecProperties props) {
-        ArrayBlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(props.getQueueCapacity());
         ThreadFactory tf = new ThreadFactory() {
             private final AtomicInteger c = new AtomicInteger();
             @Override
@@ -27,20 +27,26 @@ public class ConcurrencyConfig {
             }
         };
         ThreadPoolExecutor ex = new ThreadPoolExecutor(
-                props.getMaxConcurrent(),
-                props.getMaxConcurrent(),
+                props.peakConcurrent(),
+                props.peakConcurrent(),
                 0L,
                 TimeUnit.MILLISECONDS,
-                queue,
+                // tasks are only handed over while a limiter permit is held, so this stays near empty
+                new LinkedBlockingQueue<>(),
                 tf,
                 new ThreadPoolExecutor.AbortPolicy()
         );
-        ex.prestartAllCoreThreads();
         return ex;
     }
 
+    /** One virtual thread per execution; only used with app.exec.concurrent.threads=virtual. */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService execVirtualThreads() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("exec-vt-", 0).factory());
+    }
+
     @Bean
-    public Semaphore execPermits(ConcurrentExecProperties props) {
-        return new Semaphore(props.getMaxConcurrent());
+    public ConcurrencyLimiter execLimiter(ConcurrentExecProperties props) {
+        return new ConcurrencyLimiter(props);
     }
 }
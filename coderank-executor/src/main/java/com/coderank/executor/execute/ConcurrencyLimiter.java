@@ -0,0 +1,152 @@
+package com.coderank.executor.execute;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Limits concurrent executions, replacing a fixed semaphore. When adaptive, the limit moves
+ * between a floor and a ceiling by AIMD: it grows by about one per limit's worth of runs that
+ * finish while the limiter is full, and is cut by a factor when a run's sandbox takes much longer
+ * than usual to start or the host's load average per core is above the configured maximum.
+ * Start latency is sampled rather than the run's wall time, which is mostly the program's own
+ * and would let a slow but healthy program drive the limit down.
+ */
+public class ConcurrencyLimiter {
+    private static final double BACKOFF = 0.8;
+    private static final double BASELINE_ALPHA = 0.05;
+    private static final long LOAD_REFRESH_NS = TimeUnit.SECONDS.toNanos(1);
+
+    private final boolean adaptive;
+    private final int floor;
+    private final int ceiling;
+    private final double latencyTolerance;
+    private final double maxLoadPerCore;
+    private final DoubleSupplier loadPerCore;
+
+    private final ReentrantLock lock = new ReentrantLock(true); // waiters start in arrival order
+    private final Condition available = lock.newCondition();
+    private final Map<String, Double> baselineNs = new HashMap<>(); // smoothed start latency per workload
+    private double limit;
+    private int inFlight;
+    private long lastDecreaseNs = System.nanoTime();
+    private long loadReadNs = lastDecreaseNs - LOAD_REFRESH_NS;
+    private double load;
+
+    public ConcurrencyLimiter(ConcurrentExecProperties props) {
+        this(props, ConcurrencyLimiter::systemLoadPerCore);
+    }
+
+    ConcurrencyLimiter(ConcurrentExecProperties props, DoubleSupplier loadPerCore) {
+        this.adaptive = props.isAdaptive();
+        this.floor = Math.max(1, props.getLimitFloor());
+        this.ceiling = Math.max(floor, props.getLimitCeiling());
+        this.latencyTolerance = props.getLatencyTolerance();
+        this.maxLoadPerCore = props.getMaxLoadPerCore();
+        this.loadPerCore = loadPerCore;
+        this.limit = adaptive ? Math.min(ceiling, Math.max(floor, props.getMaxConcurrent())) : props.getMaxConcurrent();
+    }
+
+    public void acquire() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (inFlight >= (int) limit) available.await();
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean tryAcquire(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (inFlight >= (int) limit) {
+                if (nanos <= 0) return false;
+                nanos = available.awaitNanos(nanos);
+            }
+            inFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Releases a slot without using the run as a latency sample. */
+    public void release() {
+        release(null, 0L, 0L);
+    }
+
+    /**
+     * Releases a slot; a non-null key makes sampleNs, the start latency of the run that held the
+     * slot since startNs, a sample for that workload.
+     */
+    public void release(String key, long startNs, long sampleNs) {
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            boolean wasFull = inFlight >= (int) limit;
+            inFlight--;
+            if (adaptive && key != null) {
+                int before = (int) limit;
+                adjust(key, startNs, sampleNs, now, wasFull);
+                if ((int) limit > before) available.signal();
+            }
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void adjust(String key, long startNs, long sampleNs, long now, boolean wasFull) {
+        Double base = baselineNs.get(key);
+        boolean slow = base != null && sampleNs > base * latencyTolerance;
+        baselineNs.put(key, base == null ? sampleNs : base + BASELINE_ALPHA * (sampleNs - base));
+        if (slow || hostLoad(now) > maxLoadPerCore) {
+            // runs started before the last cut say nothing about the new limit
+            if (startNs - lastDecreaseNs > 0) {
+                limit = Math.max(floor, limit * BACKOFF);
+                lastDecreaseNs = now;
+            }
+        } else if (wasFull) {
+            limit = Math.min(ceiling, limit + 1.0 / limit);
+        }
+    }
+
+    private double hostLoad(long now) {
+        if (now - loadReadNs >= LOAD_REFRESH_NS) {
+            load = loadPerCore.getAsDouble();
+            loadReadNs = now;
+        }
+        return load;
+    }
+
+    public int limit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // negative (unknown) on platforms without a load average, which never triggers a cut
+    private static double systemLoadPerCore() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        return os.getSystemLoadAverage() / os.getAvailableProcessors();
+    }
+}
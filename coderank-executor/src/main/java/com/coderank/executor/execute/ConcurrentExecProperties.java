@@ -2,22 +2,54 @@ package com.coderank.executor.execute;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @ConfigurationProperties(prefix = "app.exec.concurrent")
 public class ConcurrentExecProperties {
-    private int maxConcurrent = 6;       // pool size & semaphore permits
-    private int queueCapacity = 20;      // pool queue size
+    private int maxConcurrent = 6;       // concurrency limit (the starting point when adaptive)
+    private boolean adaptive = true;     // AIMD limit between limitFloor and limitCeiling
+    private int limitFloor = 2;
+    private int limitCeiling = 16;       // also the exec-worker pool size
+    private double latencyTolerance = 2.0; // a sandbox start this many times the usual latency cuts the limit
+    private double maxLoadPerCore = 1.5; // 1-minute load average per core above which the limit is cut
+    private int queueCapacity = 20;      // queue size per language unless set on the language
     private int submitTimeoutMs = 150;   // max time to enqueue before rejecting
-    private int permitTimeoutMs = 200;   // max time to get semaphore before rejecting
+    private boolean borrowIdle = false;  // a language at its own cap may use slots no other language is waiting for
     private int perUserMaxInFlight = 2;  // fairness
+    private String threads = "platform"; // platform (fixed exec-worker pool) | virtual (a virtual thread per execution)
+    private String scheduler = "fair";   // fair (per-user queues, weighted round robin) | fifo
+    private Map<String, Integer> roleWeights = new HashMap<>(Map.of("USER", 1, "ADMIN", 2)); // executions per turn
 
     public int getMaxConcurrent() { return maxConcurrent; }
     public void setMaxConcurrent(int maxConcurrent) { this.maxConcurrent = maxConcurrent; }
+    public boolean isAdaptive() { return adaptive; }
+    public void setAdaptive(boolean adaptive) { this.adaptive = adaptive; }
+    public int getLimitFloor() { return limitFloor; }
+    public void setLimitFloor(int limitFloor) { this.limitFloor = limitFloor; }
+    public int getLimitCeiling() { return limitCeiling; }
+    public void setLimitCeiling(int limitCeiling) { this.limitCeiling = limitCeiling; }
+    public double getLatencyTolerance() { return latencyTolerance; }
+    public void setLatencyTolerance(double latencyTolerance) { this.latencyTolerance = latencyTolerance; }
+    public double getMaxLoadPerCore() { return maxLoadPerCore; }
+    public void setMaxLoadPerCore(double maxLoadPerCore) { this.maxLoadPerCore = maxLoadPerCore; }
+    /** The most executions that can ever run at once. */
+    public int peakConcurrent() { return adaptive ? Math.max(limitCeiling, Math.max(1, limitFloor)) : maxConcurrent; }
     public int getQueueCapacity() { return queueCapacity; }
     public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
     public int getSubmitTimeoutMs() { return submitTimeoutMs; }
     public void setSubmitTimeoutMs(int submitTimeoutMs) { this.submitTimeoutMs = submitTimeoutMs; }
-    public int getPermitTimeoutMs() { return permitTimeoutMs; }
-    public void setPermitTimeoutMs(int permitTimeoutMs) { this.permitTimeoutMs = permitTimeoutMs; }
+    public boolean isBorrowIdle() { return borrowIdle; }
+    public void setBorrowIdle(boolean borrowIdle) { this.borrowIdle = borrowIdle; }
     public int getPerUserMaxInFlight() { return perUserMaxInFlight; }
     public void setPerUserMaxInFlight(int perUserMaxInFlight) { this.perUserMaxInFlight = perUserMaxInFlight; }
+    public String getThreads() { return threads; }
+    public void setThreads(String threads) { this.threads = threads; }
+    public boolean isVirtualThreads() { return "virtual".equalsIgnoreCase(threads); }
+    public String getScheduler() { return scheduler; }
+    public void setScheduler(String scheduler) { this.scheduler = scheduler; }
+    public boolean isFairScheduler() { return !"fifo".equalsIgnoreCase(scheduler); }
+    public Map<String, Integer> getRoleWeights() { return roleWeights; }
+    public void setRoleWeights(Map<String, Integer> roleWeights) { this.roleWeights = roleWeights; }
+    public int weightFor(String role) { return roleWeights.getOrDefault(role, 1); }
 }
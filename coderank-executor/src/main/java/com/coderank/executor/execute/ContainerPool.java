@@ -0,0 +1,162 @@
+package com.coderank.executor.execute;
+
+import com.coderank.executor.language.ExecLanguage;
+import com.coderank.executor.language.LanguageRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps pre-started, idle sandbox containers per image and resource profile so a run only pays
+ * for `docker exec`.
+ * A container is used for exactly one execution and then removed; the pool starts a fresh
+ * one in the background, so every run still gets a clean /sandbox tmpfs.
+ */
+@Component
+public class ContainerPool {
+    private static final Logger log = LoggerFactory.getLogger(ContainerPool.class);
+
+    private final ContainerPoolProperties props;
+    private final ExecProperties execProps;
+    private final DockerClient docker;
+    private final LanguageRegistry languages;
+    private final ConcurrentHashMap<String, ImagePool> pools = new ConcurrentHashMap<>();
+    private final ScheduledThreadPoolExecutor maintenance;
+
+    public ContainerPool(ContainerPoolProperties props, ExecProperties execProps, DockerClient docker,
+                         LanguageRegistry languages) {
+        this.props = props;
+        this.execProps = execProps;
+        this.docker = docker;
+        this.languages = languages;
+        AtomicInteger c = new AtomicInteger();
+        this.maintenance = new ScheduledThreadPoolExecutor(2, r -> {
+            Thread t = new Thread(r, "container-pool-" + c.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private record Warm(String name, long startedNs) {}
+
+    private static final class ImagePool {
+        final String image;
+        final SandboxLimits limits;
+        final ConcurrentLinkedDeque<Warm> idle = new ConcurrentLinkedDeque<>();
+        final AtomicInteger total = new AtomicInteger();    // idle + leased + starting
+        final AtomicInteger starting = new AtomicInteger();
+
+        ImagePool(String image, SandboxLimits limits) {
+            this.image = image;
+            this.limits = limits;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!props.isEnabled()) return;
+        for (ExecLanguage l : languages.enabled()) {
+            poolFor(l.getImage(), SandboxLimits.of(l, execProps));
+        }
+        maintenance.scheduleWithFixedDelay(this::maintain, 0, props.getHealthCheckIntervalSeconds(), TimeUnit.SECONDS);
+    }
+
+    /** Returns the name of an idle warm container for the image and limits, or null if none is ready. */
+    public String acquire(String image, SandboxLimits limits) {
+        if (!props.isEnabled()) return null;
+        ImagePool p = poolFor(image, limits);
+        Warm w = p.idle.pollFirst();
+        maintenance.execute(() -> topUp(p));
+        return w == null ? null : w.name();
+    }
+
+    /** Discards a container handed out by {@link #acquire} and schedules its replacement. */
+    public void release(String image, SandboxLimits limits, String container) {
+        ImagePool p = pools.get(key(image, limits));
+        maintenance.execute(() -> {
+            docker.remove(container);
+            if (p != null) {
+                p.total.decrementAndGet();
+                topUp(p);
+            }
+        });
+    }
+
+    public int idleCount(String image, SandboxLimits limits) {
+        ImagePool p = pools.get(key(image, limits));
+        return p == null ? 0 : p.idle.size();
+    }
+
+    // limits are fixed when a container starts, so each resource profile has its own pool
+    private ImagePool poolFor(String image, SandboxLimits limits) {
+        return pools.computeIfAbsent(key(image, limits), k -> new ImagePool(image, limits));
+    }
+
+    private static String key(String image, SandboxLimits limits) {
+        return image + "|" + limits.cpus() + "|" + limits.memory();
+    }
+
+    private void maintain() {
+        long maxAgeNs = TimeUnit.SECONDS.toNanos(props.getMaxIdleSeconds());
+        for (ImagePool p : pools.values()) {
+            for (Warm w : List.copyOf(p.idle)) {
+                boolean expired = System.nanoTime() - w.startedNs() > maxAgeNs;
+                if (expired || !docker.isRunning(w.name())) {
+                    if (p.idle.remove(w)) {
+                        docker.remove(w.name());
+                        p.total.decrementAndGet();
+                    }
+                }
+            }
+            topUp(p);
+        }
+    }
+
+    private void topUp(ImagePool p) {
+        while (p.idle.size() + p.starting.get() < props.getMinIdle()) {
+            int t = p.total.get();
+            if (t >= props.getMaxSize()) return;
+            if (!p.total.compareAndSet(t, t + 1)) continue;
+            p.starting.incrementAndGet();
+            try {
+                Warm w = startWarm(p.image, p.limits);
+                if (w == null) {
+                    p.total.decrementAndGet();
+                    return;
+                }
+                p.idle.addLast(w);
+            } finally {
+                p.starting.decrementAndGet();
+            }
+        }
+    }
+
+    private Warm startWarm(String image, SandboxLimits limits) {
+        String name = "coderank-warm-" + UUID.randomUUID().toString().replace("-", "");
+        // the container outlives its idle budget by a margin so a leased run never races its exit
+        List<String> cmd = List.of("sleep", String.valueOf(props.getMaxIdleSeconds() + 60));
+        long startedNs = System.nanoTime();
+        if (!docker.startDetached(name, image, limits, cmd, props.getStartTimeoutSeconds())) {
+            log.warn("Failed to start warm container for image {}", image);
+            docker.remove(name);
+            return null;
+        }
+        return new Warm(name, startedNs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        maintenance.shutdownNow();
+        for (ImagePool p : pools.values()) {
+            for (Warm w : p.idle) docker.remove(w.name());
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.coderank.executor.execute;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.exec.pool")
+public class ContainerPoolProperties {
+    private boolean enabled = false;            // off -> every run is a cold `docker run --rm`
+    private int minIdle = 1;                    // warm containers kept ready per image
+    private int maxSize = 4;                    // idle + leased containers per image
+    private int healthCheckIntervalSeconds = 30;
+    private int startTimeoutSeconds = 10;       // max time for `docker run -d` of a warm container
+    private int maxIdleSeconds = 300;           // idle containers older than this are replaced
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public int getMinIdle() { return minIdle; }
+    public void setMinIdle(int minIdle) { this.minIdle = minIdle; }
+    public int getMaxSize() { return maxSize; }
+    public void setMaxSize(int maxSize) { this.maxSize = maxSize; }
+    public int getHealthCheckIntervalSeconds() { return healthCheckIntervalSeconds; }
+    public void setHealthCheckIntervalSeconds(int healthCheckIntervalSeconds) { this.healthCheckIntervalSeconds = healthCheckIntervalSeconds; }
+    public int getStartTimeoutSeconds() { return startTimeoutSeconds; }
+    public void setStartTimeoutSeconds(int startTimeoutSeconds) { this.startTimeoutSeconds = startTimeoutSeconds; }
+    public int getMaxIdleSeconds() { return maxIdleSeconds; }
+    public void setMaxIdleSeconds(int maxIdleSeconds) { this.maxIdleSeconds = maxIdleSeconds; }
+}
@@ -0,0 +1,28 @@
+package com.coderank.executor.execute;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Starts and manages sandbox containers. Every container gets the same isolation settings
+ * (no network, read-only root, /sandbox tmpfs, dropped capabilities, non-root user, pids and
+ * tmpfs limits from {@link ExecProperties}); CPU and memory come from the caller's
+ * {@link SandboxLimits}. Environment entries are "KEY=value" strings.
+ */
+public interface DockerClient {
+
+    /** Starts a one-shot container that is removed when it exits. */
+    SandboxProcess run(String name, String image, SandboxLimits limits, List<String> env, List<String> cmd,
+                       boolean attachStdin) throws IOException;
+
+    /** Runs a command inside an already running container. */
+    SandboxProcess exec(String container, List<String> env, List<String> cmd, boolean attachStdin) throws IOException;
+
+    /** Starts a detached container (removed when it exits); returns false if it did not come up. */
+    boolean startDetached(String name, String image, SandboxLimits limits, List<String> cmd, int timeoutSeconds);
+
+    boolean isRunning(String container);
+
+    /** Force-removes a container, killing it if needed; errors are ignored. */
+    void remove(String container);
+}
@@ -0,0 +1,25 @@
+package com.coderank.executor.execute;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@Configuration
+public class DockerClientConfig {
+    private static final Logger log = LoggerFactory.getLogger(DockerClientConfig.class);
+
+    @Bean
+    public DockerClient dockerClient(DockerClientProperties props, ExecProperties exec) {
+        if ("api".equalsIgnoreCase(props.getBackend())) {
+            if (Files.exists(Path.of(props.getSocketPath()))) {
+                return new EngineApiDockerClient(props, exec);
+            }
+            log.warn("Docker socket {} not found, falling back to the docker CLI backend", props.getSocketPath());
+        }
+        return new CliDockerClient(exec);
+    }
+}
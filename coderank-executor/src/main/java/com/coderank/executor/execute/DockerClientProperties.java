@@ -0,0 +1,26 @@
+package com.coderank.executor.execute;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.exec.docker")
+public class DockerClientProperties {
+    private String backend = "cli";                      // cli | api
+    private String socketPath = "/var/run/docker.sock";  // used by the api backend
+    private String apiVersion = "v1.41";
+    private int maxIdleConnections = 16;
+    private int callTimeoutSeconds = 30;                 // api backend: bound on every request to the daemon
+    private int pullTimeoutSeconds = 600;                // api backend: pulling an image missing on the host
+
+    public String getBackend() { return backend; }
+    public void setBackend(String backend) { this.backend = backend; }
+    public String getSocketPath() { return socketPath; }
+    public void setSocketPath(String socketPath) { this.socketPath = socketPath; }
+    public String getApiVersion() { return apiVersion; }
+    public void setApiVersion(String apiVersion) { this.apiVersion = apiVersion; }
+    public int getMaxIdleConnections() { return maxIdleConnections; }
+    public void setMaxIdleConnections(int maxIdleConnections) { this.maxIdleConnections = maxIdleConnections; }
+    public int getCallTimeoutSeconds() { return callTimeoutSeconds; }
+    public void setCallTimeoutSeconds(int callTimeoutSeconds) { this.callTimeoutSeconds = callTimeoutSeconds; }
+    public int getPullTimeoutSeconds() { return pullTimeoutSeconds; }
+    public void setPullTimeoutSeconds(int pullTimeoutSeconds) { this.pullTimeoutSeconds = pullTimeoutSeconds; }
+}
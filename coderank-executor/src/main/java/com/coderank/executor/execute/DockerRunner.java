@@ -3,130 +3,463 @@ package com.coderank.executor.execute;
 import com.coderank.executor.language.ExecLanguage;
 import org.springframework.stereotype.Component;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.*;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class DockerRunner {
     private final ExecProperties props;
+    private final DockerClient docker;
+    private final ContainerPool pool;
+    private final CompileCache compileCache;
+    private final StreamPump streamPump;
 
-    public DockerRunner(ExecProperties props) {
+    public DockerRunner(ExecProperties props, DockerClient docker, ContainerPool pool, CompileCache compileCache,
+                        StreamPump streamPump) {
         this.props = props;
+        this.docker = docker;
+        this.pool = pool;
+        this.compileCache = compileCache;
+        this.streamPump = streamPump;
     }
 
-    public record Result(String stdout, String stderr, ExecStatus status, int execTimeMs) {}
+    private static final long SETTLE_GRACE_MS = 1000;
+
+    /**
+     * Resource use reported by the sandbox's cgroup; a field is null when it could not be read.
+     * memoryKb is the run's peak and compileMemoryKb the compiler's; see CgroupStats for when the
+     * run's cannot be told apart.
+     */
+    public record Usage(Integer compileMs, Integer runMs, Integer cpuTimeMs, Integer memoryKb, Integer compileMemoryKb) {
+        public static final Usage NONE = new Usage(null, null, null, null, null);
+    }
+
+    /**
+     * How long the daemon took to hand over the run's sandbox (the slower one when it compiled in a
+     * container of its own); warm when it was an exec in a pooled container. Negative when no
+     * container was started.
+     */
+    public record Startup(long nanos, boolean warm) {
+        public static final Startup NONE = new Startup(-1, false);
+
+        static Startup slower(Startup a, Startup b) { return a.nanos() >= b.nanos() ? a : b; }
+    }
+
+    /** execTimeMs is wall-clock time around the whole invocation; usage splits it up. */
+    public record Result(String stdout, String stderr, ExecStatus status, int execTimeMs, Usage usage, Startup startup) {
+        public Result(String stdout, String stderr, ExecStatus status, int execTimeMs) {
+            this(stdout, stderr, status, execTimeMs, Usage.NONE, Startup.NONE);
+        }
+
+        /** Output is cut at the per-stream cap exactly when the run was stopped for exceeding it. */
+        public boolean truncated() { return status == ExecStatus.OUTPUT_LIMIT_EXCEEDED; }
+    }
+
+    /** Outcome of a single container invocation; stdout is kept as bytes when it carries an artifact. */
+    private record Raw(String stdout, byte[] stdoutBytes, String stderr, boolean finished, int exit, int elapsedMs,
+                       boolean truncated, Startup startup) {}
 
     public Result run(ExecLanguage lang, String source, String stdin) throws IOException, InterruptedException {
-        String codeB64 = Base64.getEncoder().encodeToString(source.getBytes(StandardCharsets.UTF_8));
-        String stdinB64 = (stdin == null ? "" : Base64.getEncoder().encodeToString(stdin.getBytes(StandardCharsets.UTF_8)));
-        String file = "/sandbox/" + lang.getFileName();
+        return run(lang, source, stdin, OutputListener.NONE);
+    }
+
+    /** Runs the program, forwarding its output to the listener as it is produced. */
+    public Result run(ExecLanguage lang, String source, String stdin, OutputListener listener) throws IOException, InterruptedException {
+        String codeB64 = b64(source);
+        String stdinB64 = (stdin == null ? "" : b64(stdin));
         String compile = (lang.getCompileCmd() == null ? "" : lang.getCompileCmd());
-        String run = lang.getRunCmd();
-        int runTimeout = props.getTimeoutSeconds();
 
-        String cname = "coderank-run-" + UUID.randomUUID().toString().replace("-", "");
+        if (compile.isBlank() || !compileCache.isEnabled()) {
+            CgroupStats stats = new CgroupStats();
+            return toResult(launch(lang, inPlace(lang, compile), env(codeB64, stdinB64), stats.stdin(null),
+                    stats.hiding(listener)), stats);
+        }
 
-        // POSIX sh-compatible script (no 'pipefail')
-        StringBuilder script = new StringBuilder();
-        script.append("set -eu; ");
-        // write source
-        script.append("printf %s \"$CODE_B64\" | base64 -d > ").append(file).append("; ");
-        // optional compile (exit 88 on compile error)
-        if (!compile.isBlank()) {
-            script.append("{ ").append(compile).append(" ; } > /sandbox/.c.out 2> /sandbox/.c.err || ")
-                    .append("{ cat /sandbox/.c.out; cat /sandbox/.c.err 1>&2; exit 88; }; ");
+        String key = CompileCache.key(lang, source);
+        CompileCache.Failure failed = compileCache.getFailure(key);
+        if (failed != null) {
+            return new Result(failed.stdout(), failed.stderr(), ExecStatus.COMPILE_ERROR, 0);
         }
-        // detect timeout and build run cmd
-        script.append("if command -v timeout >/dev/null 2>&1; then TOUT=timeout; else TOUT=; fi; ")
-                .append("RUN_CMD=\"${TOUT:+$TOUT ").append(runTimeout).append("s} ").append(run).append("\"; ");
-        // execute with or without stdin
-        script.append("if [ -n \"${STDIN_B64:-}\" ]; then printf %s \"$STDIN_B64\" | base64 -d | sh -lc \"$RUN_CMD\"; ")
-                .append("else sh -lc \"$RUN_CMD\"; fi;");
-
-        List<String> cmd = new ArrayList<>(List.of(
-                "docker","run","--rm","--name",cname,
-                "--network","none",
-                "--cpus", String.valueOf(props.getCpus()),
-                "--memory", props.getMemory(),
-                "--pids-limit", String.valueOf(props.getPidsLimit()),
-                "--read-only",
-                "--tmpfs","/sandbox:rw,size="+props.getTmpfsSizeMb()+"m,exec,noatime,uid=10001,gid=10001,mode=0777",
-                "--security-opt","no-new-privileges",
-                "--cap-drop","ALL",
-                "-u","10001:10001",
-                "-e","CODE_B64="+codeB64
-        ));
-        if (!stdinB64.isEmpty()) { cmd.addAll(List.of("-e","STDIN_B64="+stdinB64)); }
-        cmd.add(lang.getImage());
-        cmd.addAll(List.of("sh","-lc", script.toString()));
-
-        ProcessBuilder pb = new ProcessBuilder(cmd);
-        pb.redirectErrorStream(false);
-
-        long startNs = System.nanoTime();
-        Process p = pb.start();
-
-        ExecutorService pool = Executors.newFixedThreadPool(2);
-        Future<String> outF = pool.submit(() -> readAll(p.getInputStream()));
-        Future<String> errF = pool.submit(() -> readAll(p.getErrorStream()));
-
-        boolean finished = p.waitFor(props.getOverallTimeoutSeconds(), TimeUnit.SECONDS);
-        int exit = -1;
-        if (!finished) {
-            runSilently(List.of("docker","rm","-f",cname));
-            p.destroyForcibly();
+        byte[] artifact = compileCache.getArtifact(key);
+        int compileMs = 0;
+        Integer compileUsageMs = null;
+        Integer compileMemoryKb = null;
+        Startup compileStartup = Startup.NONE;
+        if (artifact == null) {
+            CgroupStats packStats = new CgroupStats();
+            String packScript = CgroupStats.readTag() + CgroupStats.prelude() + writeSource(lang) + compileStep(compile) + CgroupStats.compiled()
+                    + PACK_STEP + " " + CgroupStats.trailer();
+            Raw c = launch(lang, packScript, env(codeB64, ""), packStats.stdin(null), null);
+            CgroupStats.Parsed packed = packStats.parse(c.stderr());
+            String cErr = packed.stderr();
+            compileMs = c.elapsedMs();
+            compileUsageMs = packed.usage().compileMs();
+            compileMemoryKb = packed.usage().compileMemoryKb();
+            compileStartup = c.startup();
+            if (!c.finished()) {
+                return new Result("", cErr, ExecStatus.TIMEOUT, compileMs, Usage.NONE, c.startup());
+            }
+            if (c.exit() == 88) {
+                String out = new String(c.stdoutBytes(), StandardCharsets.UTF_8);
+                compileCache.putFailure(key, out, cErr);
+                return new Result(out, cErr, ExecStatus.COMPILE_ERROR, compileMs, Usage.NONE, c.startup());
+            }
+            if (c.exit() != 0 || c.truncated()) {
+                // not cacheable (packing failed or artifact too large): compile in place as before
+                CgroupStats stats = new CgroupStats();
+                Result r = toResult(launch(lang, inPlace(lang, compile), env(codeB64, stdinB64), stats.stdin(null),
+                        stats.hiding(listener)), stats);
+                return new Result(r.stdout(), r.stderr(), r.status(), r.execTimeMs() + compileMs, r.usage(),
+                        Startup.slower(c.startup(), r.startup()));
+            }
+            artifact = c.stdoutBytes();
+            compileCache.putArtifact(key, artifact);
+        }
+        // the artifact tar arrives on the container's stdin after the stats tag; program stdin still comes from STDIN_B64
+        CgroupStats stats = new CgroupStats();
+        Result r = toResult(launch(lang, CgroupStats.readTag() + UNPACK_STEP + CgroupStats.prelude() + runStep(lang),
+                env(null, stdinB64), stats.stdin(artifact), stats.hiding(listener)), stats);
+        Usage u = r.usage();
+        return new Result(r.stdout(), r.stderr(), r.status(), r.execTimeMs() + compileMs,
+                new Usage(compileUsageMs, u.runMs(), u.cpuTimeMs(), u.memoryKb(), compileMemoryKb), Startup.slower(compileStartup, r.startup()));
+    }
+
+    public record BatchCase(String stdin, String expectedOutput) {}
+
+    /** Per-case outcome; passed is null when the case had no expected output. */
+    public record CaseResult(int index, ExecStatus status, Boolean passed, String stdout, String stderr,
+                             int execTimeMs, boolean truncated) {}
+
+    /** stdout/stderr carry compile output (or anything printed outside a case). */
+    public record BatchResult(ExecStatus status, String stdout, String stderr, List<CaseResult> cases, int execTimeMs) {}
+
+    /**
+     * Compiles once and runs every case in the same sandbox, each under the per-run time limit.
+     * Expected outputs never enter the container: the script reports each case's exit status,
+     * time, the length and SHA-256 of its stdout with trailing whitespace trimmed (see
+     * normalized) and capped excerpts of both streams, and the verdict is computed here. Report
+     * lines are tagged with a nonce read from stdin, and every process a case leaves behind is
+     * killed before its line is printed. With stopOnFirstFailure the script stops at the first
+     * failing exit status; a wrong answer is only known here, so later cases are then dropped.
+     */
+    public BatchResult runBatch(ExecLanguage lang, String source, List<BatchCase> cases, boolean stopOnFirstFailure)
+            throws IOException, InterruptedException {
+        String compile = (lang.getCompileCmd() == null ? "" : lang.getCompileCmd());
+        String key = null;
+        byte[] artifact = null;
+        if (!compile.isBlank() && compileCache.isEnabled()) {
+            key = CompileCache.key(lang, source);
+            CompileCache.Failure failed = compileCache.getFailure(key);
+            if (failed != null) {
+                return new BatchResult(ExecStatus.COMPILE_ERROR, failed.stdout(), failed.stderr(), List.of(), 0);
+            }
+            artifact = compileCache.getArtifact(key);
+        }
+
+        String nonce = UUID.randomUUID().toString().replace("-", "");
+        StringBuilder script = new StringBuilder("set -eu; read -r N; ");
+        List<String> env = new ArrayList<>();
+        for (int i = 0; i < cases.size(); i++) {
+            BatchCase c = cases.get(i);
+            env.add("CASE_" + i + "=" + b64(c.stdin() == null ? "" : c.stdin()));
+        }
+        byte[] head = (nonce + "\n").getBytes(StandardCharsets.US_ASCII);
+        byte[] stdinData = head;
+        if (artifact != null) {
+            stdinData = Arrays.copyOf(head, head.length + artifact.length);
+            System.arraycopy(artifact, 0, stdinData, head.length, artifact.length);
+            script.append("tar -xf - -C /sandbox; exec 0</dev/null; ");
         } else {
-            exit = p.exitValue();
+            env.add("CODE_B64=" + b64(source));
+            script.append("exec 0</dev/null; ").append(writeSource(lang)).append(compileStep(compile));
         }
+        script.append(batchStep(lang, cases.size(), stopOnFirstFailure));
 
-        String stdout = safeGet(outF);
-        String stderr = safeGet(errF);
-        pool.shutdownNow();
+        int caseCap = props.getBatchCaseOutputBytes();
+        long stdoutCap = props.getMaxOutputBytes() + (long) cases.size() * (2L * (caseCap / 3 + 1) * 4 + 256);
+        int timeoutSeconds = overallLimit(lang) + cases.size() * runLimit(lang);
+        Raw r = launch(lang, script.toString(), env, stdinData, OutputListener.NONE, stdoutCap, timeoutSeconds);
 
-        int elapsedMs = (int) Duration.ofNanos(System.nanoTime() - startNs).toMillis();
+        if (r.finished() && r.exit() == 88) {
+            if (key != null) compileCache.putFailure(key, r.stdout(), r.stderr());
+            return new BatchResult(ExecStatus.COMPILE_ERROR, r.stdout(), r.stderr(), List.of(), r.elapsedMs());
+        }
+        List<CaseResult> results = new ArrayList<>();
+        StringBuilder other = new StringBuilder();
+        String tag = nonce + " ";
+        // the last report for a case wins: anything printed while it ran comes before the script's own line
+        Map<Integer, String> reports = new HashMap<>();
+        Map<Integer, Integer> positions = new HashMap<>();
+        String[] lines = r.stdout().split("\n");
+        for (int n = 0; n < lines.length; n++) {
+            String line = lines[n];
+            if (line.startsWith(tag)) {
+                int index = caseIndex(line);
+                if (index >= 0) {
+                    reports.put(index, line);
+                    positions.put(index, n);
+                }
+            } else if (!line.isEmpty()) {
+                other.append(line).append('\n');
+            }
+        }
+        // cases ran in order, so a report printed before the previous case's one is not the script's
+        int previous = -1;
+        for (int i = 0; i < cases.size() && reports.containsKey(i) && positions.get(i) > previous; i++) {
+            CaseResult c = parseCase(reports.get(i), caseCap, cases.get(i).expectedOutput());
+            results.add(c);
+            previous = positions.get(i);
+            if (stopOnFirstFailure && (c.status() != ExecStatus.SUCCESS || Boolean.FALSE.equals(c.passed()))) break;
+        }
         ExecStatus status;
-        if (!finished) {
+        if (r.truncated()) {
+            status = ExecStatus.OUTPUT_LIMIT_EXCEEDED;
+        } else if (!r.finished()) {
             status = ExecStatus.TIMEOUT;
-        } else if (exit == 0) {
-            status = ExecStatus.SUCCESS;
-        } else if (exit == 88) {
-            status = ExecStatus.COMPILE_ERROR;
-        } else if (exit == 124) {
-            status = ExecStatus.TIMEOUT; // GNU timeout
         } else {
-            status = ExecStatus.RUNTIME_ERROR;
+            status = results.stream().map(CaseResult::status).filter(st -> st != ExecStatus.SUCCESS)
+                    .findFirst().orElse(r.exit() == 0 ? ExecStatus.SUCCESS : ExecStatus.RUNTIME_ERROR);
         }
-        return new Result(stdout, stderr, status, elapsedMs);
+        return new BatchResult(status, other.toString(), r.stderr(), results, r.elapsedMs());
     }
 
-    private static String readAll(InputStream in) throws IOException {
-        try (BufferedReader br = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
-            StringBuilder sb = new StringBuilder();
-            String line;
-            while ((line = br.readLine()) != null) {
-                sb.append(line).append('\n');
-            }
-            return sb.toString();
+    static String b64(String s) {
+        return Base64.getEncoder().encodeToString(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // length and SHA-256 of $1 as compared: trailing whitespace cut from every line, trailing newlines dropped
+    static final String DIGEST_FN = "crdigest() { printf %s \"$(LC_ALL=C sed 's/[[:space:]]*$//' \"$1\")\" > \"$1.n\"; "
+            + "H=$(sha256sum < \"$1.n\"); echo \"$(( $(wc -c < \"$1.n\") )) ${H%% *}\"; }; ";
+
+    // one line per case: nonce index exit millis outBytes errBytes comparedBytes comparedSha256 outB64 errB64
+    private String batchStep(ExecLanguage lang, int cases, boolean stopOnFirstFailure) {
+        int cap = props.getBatchCaseOutputBytes();
+        StringBuilder script = new StringBuilder(DIGEST_FN);
+        script.append("if command -v timeout >/dev/null 2>&1; then TOUT=timeout; else TOUT=; fi; ")
+                .append("RUN_CMD=\"${TOUT:+$TOUT ").append(runLimit(lang)).append("s} ").append(lang.getRunCmd()).append("\"; ")
+                .append("STOP=").append(stopOnFirstFailure ? 1 : 0).append("; set +e; ")
+                .append("run_case() { ")
+                .append("printf %s \"$2\" | base64 -d > /sandbox/.in; ")
+                .append("S=$(date +%s%N); sh -lc \"$RUN_CMD\" < /sandbox/.in > /sandbox/.o 2> /sandbox/.e; RC=$?; E=$(date +%s%N); ")
+                // timeout only stops its own child: whatever the program started dies here
+                .append("kill -9 -1 2>/dev/null; ")
+                .append("D=$(crdigest /sandbox/.o); ")
+                .append("OB=$(head -c ").append(cap).append(" /sandbox/.o | base64 -w0); ")
+                .append("EB=$(head -c ").append(cap).append(" /sandbox/.e | base64 -w0); ")
+                .append("printf '%s %s %s %s %s %s %s %s %s\\n' \"$N\" \"$1\" \"$RC\" \"$(( (E - S) / 1000000 ))\" ")
+                .append("\"$(( $(wc -c < /sandbox/.o) ))\" \"$(( $(wc -c < /sandbox/.e) ))\" \"$D\" \"${OB:--}\" \"${EB:--}\"; ")
+                .append("[ \"$STOP\" = 0 ] || [ \"$RC\" -eq 0 ]; }; ");
+        for (int i = 0; i < cases; i++) {
+            script.append("run_case ").append(i).append(" \"$CASE_").append(i).append("\" || exit 0; ");
         }
+        return script.toString();
     }
 
-    private static String safeGet(Future<String> f) {
-        try { return f.get(200, TimeUnit.MILLISECONDS); } catch (Exception e) { return ""; }
+    private static int caseIndex(String line) {
+        String[] f = line.split(" ", 3);
+        try {
+            return f.length < 3 ? -1 : Integer.parseInt(f[1]);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /** A report line as batchStep prints it, judged against the case's expected output (may be null). */
+    static CaseResult parseCase(String line, int cap, String expectedOutput) {
+        String[] f = line.split(" ");
+        int exit = Integer.parseInt(f[2]);
+        ExecStatus status = exit == 0 ? ExecStatus.SUCCESS : exit == 124 ? ExecStatus.TIMEOUT : ExecStatus.RUNTIME_ERROR;
+        Boolean passed = null;
+        if (expectedOutput != null) {
+            byte[] expected = normalized(expectedOutput).getBytes(StandardCharsets.UTF_8);
+            passed = Long.parseLong(f[6]) == expected.length && sha256(expected).equals(f[7]);
+        }
+        boolean truncated = Long.parseLong(f[4]) > cap || Long.parseLong(f[5]) > cap;
+        return new CaseResult(Integer.parseInt(f[1]), status, passed, unb64(f[8]), unb64(f[9]),
+                Integer.parseInt(f[3]), truncated);
     }
 
-    private static void runSilently(List<String> cmd) {
+    /** Text as DIGEST_FN compares it: trailing spaces, tabs, CRs etc. cut per line and trailing newlines dropped. */
+    static String normalized(String s) {
+        String[] lines = s.split("\n", -1);
+        StringBuilder b = new StringBuilder(s.length());
+        for (String line : lines) {
+            int end = line.length();
+            while (end > 0 && " \t\u000B\f\r".indexOf(line.charAt(end - 1)) >= 0) end--;
+            b.append(line, 0, end).append('\n');
+        }
+        int end = b.length();
+        while (end > 0 && b.charAt(end - 1) == '\n') end--;
+        return b.substring(0, end);
+    }
+
+    private static String sha256(byte[] data) {
         try {
-            Process p = new ProcessBuilder(cmd).start();
-            p.waitFor(2, TimeUnit.SECONDS);
-        } catch (Exception ignored) {}
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String unb64(String s) {
+        return "-".equals(s) ? "" : new String(Base64.getDecoder().decode(s), StandardCharsets.UTF_8);
+    }
+
+    // POSIX sh-compatible script fragments (no 'pipefail')
+    private static final String PACK_STEP =
+            "tar -cf - -C /sandbox --exclude=./.c.out --exclude=./.c.err .;";
+    private static final String UNPACK_STEP =
+            "set -eu; tar -xf - -C /sandbox; ";
+
+    private static String writeSource(ExecLanguage lang) {
+        return "set -eu; printf %s \"$CODE_B64\" | base64 -d > /sandbox/" + lang.getFileName() + "; ";
+    }
+
+    // optional compile (exit 88 on compile error)
+    private static String compileStep(String compile) {
+        if (compile.isBlank()) return "";
+        return "{ " + compile + " ; } > /sandbox/.c.out 2> /sandbox/.c.err || "
+                + "{ cat /sandbox/.c.out; cat /sandbox/.c.err 1>&2; exit 88; }; ";
+    }
+
+    // source, compile and run in one container, sampling usage around each step
+    String inPlace(ExecLanguage lang, String compile) {
+        return CgroupStats.readTag() + CgroupStats.prelude() + writeSource(lang) + compileStep(compile)
+                + (compile.isBlank() ? "" : CgroupStats.compiled()) + runStep(lang);
+    }
+
+    private String runStep(ExecLanguage lang) {
+        StringBuilder script = new StringBuilder();
+        // detect timeout and build run cmd
+        script.append("if command -v timeout >/dev/null 2>&1; then TOUT=timeout; else TOUT=; fi; ")
+                .append("RUN_CMD=\"${TOUT:+$TOUT ").append(runLimit(lang)).append("s} ").append(lang.getRunCmd()).append("\"; ");
+        // execute with or without stdin
+        script.append("set +e; if [ -n \"${STDIN_B64:-}\" ]; then printf %s \"$STDIN_B64\" | base64 -d | sh -lc \"$RUN_CMD\"; ")
+                .append("else sh -lc \"$RUN_CMD\" </dev/null; fi; RC=$?; ");
+        // usage trailer last, once nothing the program started is left to write after it; exit status kept
+        script.append("kill -9 -1 2>/dev/null; ");
+        script.append(CgroupStats.trailer()).append("exit $RC;");
+        return script.toString();
+    }
+
+    static List<String> env(String codeB64, String stdinB64) {
+        List<String> env = new ArrayList<>();
+        if (codeB64 != null) env.add("CODE_B64="+codeB64);
+        if (!stdinB64.isEmpty()) env.add("STDIN_B64="+stdinB64);
+        return env;
+    }
+
+    /** Runs one container; a null listener means stdout is a binary artifact rather than program output. */
+    private Raw launch(ExecLanguage lang, String script, List<String> env,
+                       byte[] stdinData, OutputListener listener) throws IOException, InterruptedException {
+        long stdoutCap = (listener == null ? compileCache.getMaxArtifactBytes() : props.getMaxOutputBytes());
+        return launch(lang, script, env, stdinData, listener, stdoutCap, overallLimit(lang));
+    }
+
+    // per-run time limit: the language's own, else app.exec.timeoutSeconds
+    private int runLimit(ExecLanguage lang) {
+        return lang.getTimeLimitSeconds() != null ? lang.getTimeLimitSeconds() : props.getTimeoutSeconds();
+    }
+
+    // whole container: the global compile/startup allowance plus the language's run limit
+    private int overallLimit(ExecLanguage lang) {
+        return props.getOverallTimeoutSeconds() - props.getTimeoutSeconds() + runLimit(lang);
+    }
+
+    private Raw launch(ExecLanguage lang, String script, List<String> env, byte[] stdinData, OutputListener listener,
+                       long stdoutCap, int timeoutSeconds) throws IOException, InterruptedException {
+        boolean binaryStdout = (listener == null);
+        String cname = "coderank-run-" + UUID.randomUUID().toString().replace("-", "");
+        List<String> cmd = List.of("sh","-lc", script);
+
+        // prefer a warm container from the pool; fall back to a one-shot container
+        SandboxLimits limits = SandboxLimits.of(lang, props);
+        String warm = pool.acquire(lang.getImage(), limits);
+        String target = (warm != null ? warm : cname);
+        try {
+            long startNs = System.nanoTime();
+            SandboxProcess p = (warm != null)
+                    ? docker.exec(warm, env, cmd, stdinData != null)
+                    : docker.run(cname, lang.getImage(), limits, env, cmd, stdinData != null);
+            Startup startup = new Startup(System.nanoTime() - startNs, warm != null);
+
+            Runnable kill = () -> {
+                docker.remove(target);
+                p.destroy();
+            };
+            OutputListener live = (listener == null ? OutputListener.NONE : listener);
+            OutputCapture out = new OutputCapture(stdoutCap);
+            OutputCapture err = new OutputCapture(props.getMaxOutputBytes());
+            // the pump kills the sandbox itself on overflow or deadline, even while stdin is still being written
+            StreamPump.Session io = streamPump.start(p, out, err, live, kill, timeoutSeconds, TimeUnit.SECONDS);
+            if (stdinData != null) {
+                writeAndClose(p.stdin(), stdinData);
+            }
+
+            boolean settled = io.await(timeoutSeconds * 1000L + SETTLE_GRACE_MS, TimeUnit.MILLISECONDS);
+            boolean finished = settled && io.end() == StreamPump.End.EOF && p.waitFor(SETTLE_GRACE_MS, TimeUnit.MILLISECONDS);
+            int exit = -1;
+            if (finished) {
+                exit = p.exitValue();
+            } else if (!settled || io.end() == StreamPump.End.EOF) {
+                kill.run(); // overflow and deadline kills were already issued by the pump
+            }
+
+            // captures belong to the pump until the session has settled
+            byte[] stdoutBytes = settled ? out.bytes() : new byte[0];
+            String stdout = binaryStdout ? null : new String(stdoutBytes, StandardCharsets.UTF_8);
+            String stderr = settled ? err.text() : "";
+            boolean truncated = settled && io.end() == StreamPump.End.OVERFLOW;
+            if (settled) {
+                out.release();
+                err.release();
+            }
+
+            int elapsedMs = (int) Duration.ofNanos(System.nanoTime() - startNs).toMillis();
+            return new Raw(stdout, binaryStdout ? stdoutBytes : null, stderr, finished, exit, elapsedMs, truncated, startup);
+        } finally {
+            // a pooled container is single-use: it is removed and replaced in the background
+            if (warm != null) pool.release(lang.getImage(), limits, warm);
+        }
+    }
+
+    private static Result toResult(Raw r, CgroupStats stats) {
+        CgroupStats.Parsed p = stats.parse(r.stderr());
+        ExecStatus status;
+        if (r.truncated()) {
+            status = ExecStatus.OUTPUT_LIMIT_EXCEEDED;
+        } else if (!r.finished()) {
+            status = ExecStatus.TIMEOUT;
+        } else if (r.exit() == 0) {
+            status = ExecStatus.SUCCESS;
+        } else if (r.exit() == 88) {
+            status = ExecStatus.COMPILE_ERROR;
+        } else if (r.exit() == 124) {
+            status = ExecStatus.TIMEOUT; // GNU timeout
+        } else {
+            status = ExecStatus.RUNTIME_ERROR;
+        }
+        return new Result(r.stdout(), p.stderr(), status, r.elapsedMs(), p.usage(), r.startup());
+    }
+
+    private static void writeAndClose(OutputStream out, byte[] data) {
+        try (out) {
+            out.write(data);
+        } catch (IOException ignored) {
+            // container exited (or was killed) before reading everything; its exit status tells the story
+        }
     }
 }
@@ -0,0 +1,653 @@
+package com.coderank.executor.execute;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.net.SocketTimeoutException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Talks HTTP/1.1 to the Docker Engine API over its unix socket instead of forking the CLI.
+ * Plain request/response calls reuse keep-alive connections; attach and exec-start upgrade their
+ * connection to a raw multiplexed stream, which {@link StreamPump} reads without blocking and
+ * demultiplexes into stdout and stderr. Every call is bounded by callTimeoutSeconds, so a hung
+ * daemon fails requests instead of blocking their threads; an image missing on the host is
+ * pulled on first use, as docker run does.
+ */
+public class EngineApiDockerClient implements DockerClient {
+    private static final Logger log = LoggerFactory.getLogger(EngineApiDockerClient.class);
+
+    private final ExecProperties exec;
+    private final UnixDomainSocketAddress address;
+    private final String prefix;
+    private final int maxIdleConnections;
+    private final long callTimeoutNs;
+    private final long pullTimeoutNs;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ConcurrentLinkedDeque<Conn> idle = new ConcurrentLinkedDeque<>();
+
+    public EngineApiDockerClient(DockerClientProperties props, ExecProperties exec) {
+        this.exec = exec;
+        this.address = UnixDomainSocketAddress.of(props.getSocketPath());
+        this.prefix = "/" + props.getApiVersion();
+        this.maxIdleConnections = props.getMaxIdleConnections();
+        this.callTimeoutNs = TimeUnit.SECONDS.toNanos(props.getCallTimeoutSeconds());
+        this.pullTimeoutNs = TimeUnit.SECONDS.toNanos(props.getPullTimeoutSeconds());
+    }
+
+    // ---- DockerClient ----
+
+    @Override
+    public SandboxProcess run(String name, String image, SandboxLimits limits, List<String> env, List<String> cmd,
+                              boolean attachStdin) throws IOException {
+        String id = create(name, image, limits, env, cmd, attachStdin, System.nanoTime() + pullTimeoutNs);
+        Conn stream = null;
+        Conn waiter = null;
+        try {
+            // attach and register the wait before starting so no output or exit is missed
+            stream = upgrade("/containers/" + id + "/attach?stream=1&stdout=1&stderr=1" + (attachStdin ? "&stdin=1" : ""), null);
+            waiter = connect(false);
+            send(waiter, "POST", "/containers/" + id + "/wait?condition=next-exit", null);
+            expect(call("POST", "/containers/" + id + "/start", null), "start");
+            Conn w = waiter;
+            return new ApiProcess(stream, () -> readWaitStatus(w), w);
+        } catch (IOException e) {
+            closeQuietly(stream);
+            closeQuietly(waiter);
+            remove(id);
+            throw e;
+        }
+    }
+
+    @Override
+    public SandboxProcess exec(String container, List<String> env, List<String> cmd, boolean attachStdin) throws IOException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("AttachStdin", attachStdin);
+        body.put("AttachStdout", true);
+        body.put("AttachStderr", true);
+        body.put("Tty", false);
+        body.put("Env", env);
+        body.put("Cmd", cmd);
+        Response r = expect(call("POST", "/containers/" + container + "/exec", body), "exec create");
+        String execId = r.json(mapper).path("Id").asText();
+        Conn stream = upgrade("/exec/" + execId + "/start", Map.of("Detach", false, "Tty", false));
+        return new ApiProcess(stream, () -> execExitCode(execId), null);
+    }
+
+    @Override
+    public boolean startDetached(String name, String image, SandboxLimits limits, List<String> cmd, int timeoutSeconds) {
+        // like docker run -d under the CLI backend: pulling, creating and starting all fit in timeoutSeconds
+        long deadlineNs = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        try {
+            String id = create(name, image, limits, List.of(), cmd, false, deadlineNs);
+            expect(call("POST", "/containers/" + id + "/start", null, deadlineNs), "start");
+            return true;
+        } catch (IOException e) {
+            log.warn("Docker API start of {} failed: {}", name, e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean isRunning(String container) {
+        try {
+            Response r = call("GET", "/containers/" + container + "/json", null);
+            return r.status() == 200 && r.json(mapper).path("State").path("Running").asBoolean(false);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void remove(String container) {
+        try {
+            call("DELETE", "/containers/" + container + "?force=1", null);
+        } catch (IOException e) {
+            log.debug("Docker API remove of {} failed: {}", container, e.getMessage());
+        }
+    }
+
+    // ---- container spec ----
+
+    // deadlineNs bounds the whole create, including a pull of the image if the host lacks it
+    private String create(String name, String image, SandboxLimits limits, List<String> env, List<String> cmd,
+                          boolean attachStdin, long deadlineNs) throws IOException {
+        Map<String, Object> host = new LinkedHashMap<>();
+        host.put("NetworkMode", "none");
+        host.put("NanoCpus", Math.round(limits.cpus() * 1_000_000_000L));
+        host.put("Memory", parseBytes(limits.memory()));
+        host.put("PidsLimit", exec.getPidsLimit());
+        host.put("ReadonlyRootfs", true);
+        host.put("Tmpfs", Map.of("/sandbox", CliDockerClient.tmpfsOptions(exec)));
+        host.put("SecurityOpt", List.of("no-new-privileges"));
+        host.put("CapDrop", List.of("ALL"));
+        host.put("AutoRemove", true);
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("Image", image);
+        body.put("Cmd", cmd);
+        body.put("Env", env);
+        body.put("User", "10001:10001");
+        body.put("NetworkDisabled", true);
+        body.put("Tty", false);
+        body.put("OpenStdin", attachStdin);
+        body.put("StdinOnce", attachStdin);
+        body.put("AttachStdin", attachStdin);
+        body.put("AttachStdout", true);
+        body.put("AttachStderr", true);
+        body.put("HostConfig", host);
+
+        String path = "/containers/create?name=" + URLEncoder.encode(name, StandardCharsets.UTF_8);
+        Response r = call("POST", path, body, deadlineNs);
+        if (r.status() == 404) {
+            pull(image, deadlineNs);
+            r = call("POST", path, body, deadlineNs);
+        }
+        return expect(r, "create").json(mapper).path("Id").asText();
+    }
+
+    /** Pulls an image without registry credentials; the daemon reports failures inside the progress stream. */
+    private void pull(String image, long deadlineNs) throws IOException {
+        log.info("Pulling image {}", image);
+        String[] ref = splitReference(image);
+        String path = "/images/create?fromImage=" + URLEncoder.encode(ref[0], StandardCharsets.UTF_8)
+                + "&tag=" + URLEncoder.encode(ref[1], StandardCharsets.UTF_8);
+        Response r = expect(exchange(connect(false), "POST", path, null, deadlineNs), "pull " + image);
+        for (String line : new String(r.body(), StandardCharsets.UTF_8).split("\n")) {
+            if (line.isBlank()) continue;
+            JsonNode error = mapper.readTree(line).path("error");
+            if (!error.isMissingNode()) throw new IOException("docker api pull " + image + ": " + error.asText());
+        }
+    }
+
+    /** Image reference as name and tag (or digest), the tag defaulting to latest as in docker pull. */
+    static String[] splitReference(String image) {
+        int at = image.indexOf('@');
+        if (at >= 0) return new String[]{image.substring(0, at), image.substring(at + 1)};
+        int colon = image.lastIndexOf(':');
+        if (colon > image.lastIndexOf('/')) return new String[]{image.substring(0, colon), image.substring(colon + 1)};
+        return new String[]{image, "latest"};
+    }
+
+    /** Parses docker-style sizes such as "256m" or "1g" into bytes. */
+    static long parseBytes(String v) {
+        String s = v.trim().toLowerCase(Locale.ROOT);
+        if (s.endsWith("b")) s = s.substring(0, s.length() - 1);
+        long mul = switch (s.charAt(s.length() - 1)) {
+            case 'k' -> 1024L;
+            case 'm' -> 1024L * 1024;
+            case 'g' -> 1024L * 1024 * 1024;
+            default -> 1L;
+        };
+        if (mul > 1) s = s.substring(0, s.length() - 1);
+        return Long.parseLong(s) * mul;
+    }
+
+    private int readWaitStatus(Conn waiter) throws IOException {
+        waiter.deadlineNs = System.nanoTime() + callTimeoutNs; // asked for once the output has ended
+        Head h = readHead(waiter.in);
+        byte[] body = readBody(waiter.in, h);
+        if (h.keepAlive()) release(waiter); else waiter.close();
+        return mapper.readTree(body).path("StatusCode").asInt(-1);
+    }
+
+    private int execExitCode(String execId) throws IOException {
+        // the stream hits EOF slightly before the daemon records the exit code
+        for (int i = 0; i < 50; i++) {
+            JsonNode n = expect(call("GET", "/exec/" + execId + "/json", null), "exec inspect").json(mapper);
+            if (!n.path("Running").asBoolean(false)) return n.path("ExitCode").asInt(-1);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return -1;
+    }
+
+    // ---- HTTP over the unix socket ----
+
+    private record Response(int status, byte[] body) {
+        JsonNode json(ObjectMapper m) throws IOException { return m.readTree(body); }
+    }
+
+    private record Head(int status, Map<String, String> headers) {
+        boolean keepAlive() { return !"close".equalsIgnoreCase(headers.get("connection")); }
+    }
+
+    private Response call(String method, String path, Object json) throws IOException {
+        return call(method, path, json, System.nanoTime() + callTimeoutNs);
+    }
+
+    // bounded by callTimeoutSeconds, or by deadlineNs if that comes first
+    private Response call(String method, String path, Object json, long deadlineNs) throws IOException {
+        long bound = System.nanoTime() + callTimeoutNs;
+        if (deadlineNs - bound < 0) bound = deadlineNs;
+        Conn c = connect(true);
+        try {
+            return exchange(c, method, path, json, bound);
+        } catch (SocketTimeoutException e) {
+            throw e;
+        } catch (IOException e) {
+            if (!c.reused) throw e;
+            // a pooled keep-alive connection may have been closed by the daemon; retry once on a fresh one
+            return exchange(connect(false), method, path, json, bound);
+        }
+    }
+
+    private Response exchange(Conn c, String method, String path, Object json, long deadlineNs) throws IOException {
+        boolean reusable = false;
+        c.deadlineNs = deadlineNs;
+        try {
+            send(c, method, path, json);
+            Head h = readHead(c.in);
+            byte[] body = readBody(c.in, h);
+            reusable = h.keepAlive();
+            return new Response(h.status(), body);
+        } finally {
+            if (reusable) release(c); else c.close();
+        }
+    }
+
+    /** Sends a request with Upgrade: tcp and returns the connection as a raw stream. */
+    private Conn upgrade(String path, Object json) throws IOException {
+        Conn c = connect(false);
+        c.deadlineNs = System.nanoTime() + callTimeoutNs;
+        try {
+            send(c, "POST", path, json, "Connection: Upgrade\r\nUpgrade: tcp\r\n");
+            Head h = readHead(c.in);
+            if (h.status() != 101 && h.status() != 200) {
+                throw new IOException("docker api " + path + " -> " + h.status() + ": "
+                        + new String(readBody(c.in, h), StandardCharsets.UTF_8).trim());
+            }
+            c.deadlineNs = 0; // from here the stream pump and the sandbox deadline take over
+            return c;
+        } catch (IOException e) {
+            c.close();
+            throw e;
+        }
+    }
+
+    private void send(Conn c, String method, String path, Object json) throws IOException {
+        send(c, method, path, json, "");
+    }
+
+    private void send(Conn c, String method, String path, Object json, String extraHeaders) throws IOException {
+        byte[] body = json == null ? new byte[0] : mapper.writeValueAsBytes(json);
+        String head = method + " " + prefix + path + " HTTP/1.1\r\n"
+                + "Host: docker\r\n"
+                + (json == null ? "" : "Content-Type: application/json\r\n")
+                + "Content-Length: " + body.length + "\r\n"
+                + extraHeaders
+                + "\r\n";
+        byte[] h = head.getBytes(StandardCharsets.US_ASCII);
+        byte[] all = Arrays.copyOf(h, h.length + body.length);
+        System.arraycopy(body, 0, all, h.length, body.length);
+        c.out.write(all);
+    }
+
+    private static Response expect(Response r, String what) throws IOException {
+        if (r.status() / 100 != 2 && r.status() != 304) {
+            throw new IOException("docker api " + what + " -> " + r.status() + ": "
+                    + new String(r.body(), StandardCharsets.UTF_8).trim());
+        }
+        return r;
+    }
+
+    private static Head readHead(InputStream in) throws IOException {
+        String status = readLine(in);
+        String[] parts = status.split(" ", 3);
+        if (parts.length < 2) throw new IOException("malformed status line: " + status);
+        Map<String, String> headers = new HashMap<>();
+        String line;
+        while (!(line = readLine(in)).isEmpty()) {
+            int colon = line.indexOf(':');
+            if (colon > 0) headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT), line.substring(colon + 1).trim());
+        }
+        return new Head(Integer.parseInt(parts[1]), headers);
+    }
+
+    private static byte[] readBody(InputStream in, Head h) throws IOException {
+        int s = h.status();
+        if (s / 100 == 1 || s == 204 || s == 304) return new byte[0];
+        if ("chunked".equalsIgnoreCase(h.headers().get("transfer-encoding"))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            while (true) {
+                String sizeLine = readLine(in);
+                int semi = sizeLine.indexOf(';');
+                int size = Integer.parseInt((semi >= 0 ? sizeLine.substring(0, semi) : sizeLine).trim(), 16);
+                if (size == 0) {
+                    while (!readLine(in).isEmpty()) { /* trailers */ }
+                    return out.toByteArray();
+                }
+                out.write(in.readNBytes(size));
+                readLine(in);
+            }
+        }
+        String len = h.headers().get("content-length");
+        if (len != null) return in.readNBytes(Integer.parseInt(len));
+        return in.readAllBytes();
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int b;
+        while ((b = in.read()) != -1 && b != '\n') {
+            if (b != '\r') sb.append((char) b);
+        }
+        if (b == -1 && sb.length() == 0) throw new EOFException("docker api connection closed");
+        return sb.toString();
+    }
+
+    private Conn connect(boolean allowReuse) throws IOException {
+        if (allowReuse) {
+            Conn c;
+            while ((c = idle.pollFirst()) != null) {
+                if (c.ch.isOpen()) {
+                    c.reused = true;
+                    return c;
+                }
+            }
+        }
+        SocketChannel ch = SocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            ch.connect(address);
+            ch.configureBlocking(false);
+        } catch (IOException e) {
+            ch.close();
+            throw e;
+        }
+        return new Conn(ch);
+    }
+
+    private void release(Conn c) {
+        if (idle.size() < maxIdleConnections) idle.addFirst(c); else c.close();
+    }
+
+    private static void closeQuietly(Conn c) {
+        if (c != null) c.close();
+    }
+
+    /**
+     * Non-blocking connection with its own stream adapters; unlike Channels.newInputStream these
+     * do not share a lock between reads and writes, so stdin can be written while stdout is being
+     * read. Reads and writes wait for readiness and fail with SocketTimeoutException once
+     * deadlineNs has passed (0: no deadline).
+     */
+    private static final class Conn implements Closeable {
+        final SocketChannel ch;
+        final InputStream in;
+        final OutputStream out;
+        boolean reused;
+        volatile long deadlineNs;
+        private Selector selector;
+        private SelectionKey key;
+
+        Conn(SocketChannel ch) {
+            this.ch = ch;
+            this.in = new BufferedInputStream(new InputStream() {
+                @Override
+                public int read() throws IOException {
+                    byte[] one = new byte[1];
+                    return read(one, 0, 1) == -1 ? -1 : one[0] & 0xff;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    if (len == 0) return 0;
+                    ByteBuffer buf = ByteBuffer.wrap(b, off, len);
+                    int n;
+                    while ((n = ch.read(buf)) == 0) await(SelectionKey.OP_READ);
+                    return n;
+                }
+            }, 8192);
+            this.out = new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    write(new byte[]{(byte) b}, 0, 1);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    ByteBuffer buf = ByteBuffer.wrap(b, off, len);
+                    while (buf.hasRemaining()) {
+                        if (ch.write(buf) == 0) await(SelectionKey.OP_WRITE);
+                    }
+                }
+
+                @Override
+                public void close() throws IOException {
+                    ch.shutdownOutput(); // half-close: the daemon then closes the container's stdin
+                }
+            };
+        }
+
+        // short selects, so a close from another thread (a kill) is noticed
+        private synchronized void await(int op) throws IOException {
+            long deadline = deadlineNs;
+            if (deadline != 0 && deadline - System.nanoTime() <= 0) {
+                throw new SocketTimeoutException("docker api call timed out");
+            }
+            if (!ch.isOpen()) throw new ClosedChannelException();
+            if (selector == null) {
+                selector = Selector.open();
+                key = ch.register(selector, op);
+            } else {
+                key.interestOps(op);
+            }
+            long waitMs = 100;
+            if (deadline != 0) waitMs = Math.max(1, Math.min(waitMs, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            selector.select(waitMs);
+            selector.selectedKeys().clear();
+        }
+
+        @Override
+        public void close() {
+            try { ch.close(); } catch (IOException ignored) {}
+            synchronized (this) {
+                if (selector != null) {
+                    try { selector.close(); } catch (IOException ignored) {}
+                }
+            }
+        }
+    }
+
+    // ---- attached process ----
+
+    private interface ExitCode { int get() throws IOException; }
+
+    private static final class ApiProcess implements SandboxProcess {
+        private final Conn stream;
+        private final Conn waiter;
+        private final Demux demux = new Demux();
+        private final ExitCode exitCode;
+        private final ByteBuffer readBuf = ByteBuffer.allocate(16 * 1024);
+        private boolean headDrained;
+        private volatile Integer exit;
+
+        ApiProcess(Conn stream, ExitCode exitCode, Conn waiter) {
+            this.stream = stream;
+            this.waiter = waiter;
+            this.exitCode = exitCode;
+        }
+
+        @Override public OutputStream stdin() { return stream.out; }
+        @Override public InputStream stdout() { return demux.stream(1); }
+        @Override public InputStream stderr() { return demux.stream(2); }
+        @Override public SelectableChannel outputChannel() { return stream.ch; }
+
+        @Override
+        public boolean readReady() throws IOException {
+            if (!headDrained) {
+                // bytes read past the upgrade response are still in the buffered reader
+                headDrained = true;
+                byte[] early = stream.in.readNBytes(stream.in.available());
+                if (early.length > 0) demux.feed(ByteBuffer.wrap(early));
+            }
+            for (int i = 0; i < 4; i++) {
+                readBuf.clear();
+                int n;
+                try {
+                    n = stream.ch.read(readBuf);
+                } catch (IOException e) {
+                    n = -1; // closed on kill/timeout: treat as end of stream
+                }
+                if (n < 0) {
+                    demux.end();
+                    return false;
+                }
+                if (n == 0) break;
+                demux.feed(readBuf.flip());
+            }
+            return true;
+        }
+
+        @Override
+        public boolean waitFor(long timeout, TimeUnit unit) throws InterruptedException {
+            return demux.awaitEof(timeout, unit);
+        }
+
+        @Override
+        public int exitValue() {
+            if (exit == null) {
+                try {
+                    exit = exitCode.get();
+                } catch (IOException e) {
+                    exit = -1;
+                }
+            }
+            return exit;
+        }
+
+        @Override
+        public void destroy() {
+            stream.close();
+            closeQuietly(waiter);
+        }
+    }
+
+    /**
+     * Splits the attach stream (8-byte header: stream id, 3 pad bytes, big-endian payload length)
+     * into per-stream input streams. Raw bytes are pushed in by {@link #feed} as they arrive.
+     */
+    static final class Demux {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+        private final CountDownLatch eof = new CountDownLatch(1);
+        @SuppressWarnings("unchecked")
+        private final ArrayDeque<ByteBuffer>[] pending = new ArrayDeque[]{new ArrayDeque<>(), new ArrayDeque<>(), new ArrayDeque<>()};
+        private final byte[] header = new byte[8];
+        private int headerFill;
+        private int frameType;
+        private int frameLeft;
+        private boolean ended;
+
+        InputStream stream(int id) {
+            return new InputStream() {
+                @Override
+                public int read() throws IOException {
+                    byte[] one = new byte[1];
+                    return read(one, 0, 1) == -1 ? -1 : one[0] & 0xff;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return Demux.this.read(id, b, off, len);
+                }
+
+                @Override
+                public int available() {
+                    lock.lock();
+                    try {
+                        int n = 0;
+                        for (ByteBuffer bb : pending[id]) n += bb.remaining();
+                        return n;
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            };
+        }
+
+        void feed(ByteBuffer data) {
+            lock.lock();
+            try {
+                while (data.hasRemaining()) {
+                    if (frameLeft == 0) {
+                        int n = Math.min(8 - headerFill, data.remaining());
+                        data.get(header, headerFill, n);
+                        headerFill += n;
+                        if (headerFill < 8) break;
+                        headerFill = 0;
+                        frameType = header[0];
+                        frameLeft = ((header[4] & 0xff) << 24) | ((header[5] & 0xff) << 16)
+                                | ((header[6] & 0xff) << 8) | (header[7] & 0xff);
+                        continue;
+                    }
+                    int n = Math.min(frameLeft, data.remaining());
+                    byte[] payload = new byte[n];
+                    data.get(payload);
+                    frameLeft -= n;
+                    if (frameType >= 0 && frameType < pending.length) pending[frameType].addLast(ByteBuffer.wrap(payload));
+                }
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void end() {
+            lock.lock();
+            try {
+                ended = true;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            eof.countDown();
+        }
+
+        boolean awaitEof(long timeout, TimeUnit unit) throws InterruptedException {
+            return eof.await(timeout, unit);
+        }
+
+        private int read(int id, byte[] b, int off, int len) {
+            if (len == 0) return 0;
+            lock.lock();
+            try {
+                while (true) {
+                    ByteBuffer head = pending[id].peekFirst();
+                    if (head != null) {
+                        int n = Math.min(len, head.remaining());
+                        head.get(b, off, n);
+                        if (!head.hasRemaining()) pending[id].pollFirst();
+                        return n;
+                    }
+                    if (ended) return -1;
+                    changed.awaitUninterruptibly();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -10,6 +10,9 @@ public class ExecProperties {
     private double cpus = 0.5;
     private int pidsLimit = 128;
     private int tmpfsSizeMb = 64;
+    private long maxOutputBytes = 1024 * 1024; // per stream; the sandbox is killed beyond this
+    private int batchCaseOutputBytes = 64 * 1024; // per stream and test case in batch runs
+    private int streamBufferChunks = 256; // per live-output client; chunks beyond this are dropped
 
     public int getTimeoutSeconds() { return timeoutSeconds; }
     public void setTimeoutSeconds(int timeoutSeconds) { this.timeoutSeconds = timeoutSeconds; }
@@ -23,4 +26,10 @@ public class ExecProperties {
     public void setPidsLimit(int pidsLimit) { this.pidsLimit = pidsLimit; }
     public int getTmpfsSizeMb() { return tmpfsSizeMb; }
     public void setTmpfsSizeMb(int tmpfsSizeMb) { this.tmpfsSizeMb = tmpfsSizeMb; }
+    public long getMaxOutputBytes() { return maxOutputBytes; }
+    public void setMaxOutputBytes(long maxOutputBytes) { this.maxOutputBytes = maxOutputBytes; }
+    public int getBatchCaseOutputBytes() { return batchCaseOutputBytes; }
+    public void setBatchCaseOutputBytes(int batchCaseOutputBytes) { this.batchCaseOutputBytes = batchCaseOutputBytes; }
+    public int getStreamBufferChunks() { return streamBufferChunks; }
+    public void setStreamBufferChunks(int streamBufferChunks) { this.streamBufferChunks = streamBufferChunks; }
 }
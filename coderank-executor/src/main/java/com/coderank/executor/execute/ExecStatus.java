@@ -1,3 +1,9 @@
 package com.coderank.executor.execute;
 
-public enum ExecStatus { SUCCESS, COMPILE_ERROR, RUNTIME_ERROR, TIMEOUT, INTERNAL_ERROR }
+public enum ExecStatus {
+    SUCCESS, COMPILE_ERROR, RUNTIME_ERROR, TIMEOUT, INTERNAL_ERROR,
+    OUTPUT_LIMIT_EXCEEDED, // stdout or stderr went over app.exec.maxOutputBytes; the run was stopped
+    QUEUED; // async submission accepted, result not written yet
+
+    public boolean isTerminal() { return this != QUEUED; }
+}
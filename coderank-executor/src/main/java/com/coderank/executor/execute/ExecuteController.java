@@ -18,4 +18,11 @@ public class ExecuteController {
                                                    @Valid @RequestBody ExecuteRequest req) {
         return ResponseEntity.ok(service.execute(user, req));
     }
+
+    /** One source, many stdin cases: compiled once and run in a single sandbox. */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchExecuteResponse> executeBatch(@AuthenticationPrincipal User user,
+                                                             @Valid @RequestBody BatchExecuteRequest req) {
+        return ResponseEntity.ok(service.executeBatch(user, req));
+    }
 }
@@ -5,16 +5,47 @@ public class ExecuteResponse {
     private final String stderr;
     private final ExecStatus status;
     private final int execTimeMs;
+    private final boolean truncated;
+    private final Integer compileTimeMs;
+    private final Integer runTimeMs;
+    private final Integer cpuTimeMs;
+    private final Integer memoryKb;
+    private final Integer compileMemoryKb;
 
     public ExecuteResponse(String stdout, String stderr, ExecStatus status, int execTimeMs) {
+        this(stdout, stderr, status, execTimeMs, status == ExecStatus.OUTPUT_LIMIT_EXCEEDED);
+    }
+
+    public ExecuteResponse(String stdout, String stderr, ExecStatus status, int execTimeMs, boolean truncated) {
+        this(stdout, stderr, status, execTimeMs, truncated, DockerRunner.Usage.NONE);
+    }
+
+    public ExecuteResponse(String stdout, String stderr, ExecStatus status, int execTimeMs, boolean truncated,
+                           DockerRunner.Usage usage) {
         this.stdout = stdout;
         this.stderr = stderr;
         this.status = status;
         this.execTimeMs = execTimeMs;
+        this.truncated = truncated;
+        this.compileTimeMs = usage.compileMs();
+        this.runTimeMs = usage.runMs();
+        this.cpuTimeMs = usage.cpuTimeMs();
+        this.memoryKb = usage.memoryKb();
+        this.compileMemoryKb = usage.compileMemoryKb();
+    }
+
+    public static ExecuteResponse from(DockerRunner.Result r) {
+        return new ExecuteResponse(r.stdout(), r.stderr(), r.status(), r.execTimeMs(), r.truncated(), r.usage());
     }
 
     public String getStdout() { return stdout; }
     public String getStderr() { return stderr; }
     public ExecStatus getStatus() { return status; }
     public int getExecTimeMs() { return execTimeMs; }
+    public boolean isTruncated() { return truncated; }
+    public Integer getCompileTimeMs() { return compileTimeMs; }
+    public Integer getRunTimeMs() { return runTimeMs; }
+    public Integer getCpuTimeMs() { return cpuTimeMs; }
+    public Integer getMemoryKb() { return memoryKb; }
+    public Integer getCompileMemoryKb() { return compileMemoryKb; }
 }
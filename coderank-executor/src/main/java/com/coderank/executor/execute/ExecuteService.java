@@ -1,41 +1,48 @@
 package com.coderank.executor.execute;
 
 import com.coderank.executor.language.ExecLanguage;
-import com.coderank.executor.language.ExecLanguageRepository;
+import com.coderank.executor.language.LanguageRegistry;
 import com.coderank.executor.submit.Submission;
-import com.coderank.executor.submit.SubmissionRepository;
 import com.coderank.executor.user.User;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
 
 @Service
 public class ExecuteService {
-    private final ExecLanguageRepository languages;
-    private final SubmissionRepository submissions;
+    private final LanguageRegistry languages;
+    private final SubmissionWriter writer;
     private final ExecutionOrchestrator orchestrator;
+    private final ResultCache resultCache;
     private final MeterRegistry meters;
 
-    public ExecuteService(ExecLanguageRepository languages,
-                          SubmissionRepository submissions,
+    public ExecuteService(LanguageRegistry languages,
+                          SubmissionWriter writer,
                           ExecutionOrchestrator orchestrator,
+                          ResultCache resultCache,
                           MeterRegistry meters) {
         this.languages = languages;
-        this.submissions = submissions;
+        this.writer = writer;
         this.orchestrator = orchestrator;
+        this.resultCache = resultCache;
         this.meters = meters;
     }
 
     public ExecuteResponse execute(User user, ExecuteRequest req) {
-        ExecLanguage lang = languages.findById(req.getLanguage())
-                .filter(ExecLanguage::isEnabled)
-                .orElseThrow(() -> new IllegalArgumentException("Unsupported or disabled language: " + req.getLanguage()));
+        ExecLanguage lang = resolveLanguage(req.getLanguage());
 
         DockerRunner.Result r;
         try {
-            r = orchestrator.submitAndWait(user, lang, req.getSource(), Optional.ofNullable(req.getStdin()).orElse(""));
+            String stdin = Optional.ofNullable(req.getStdin()).orElse("");
+            r = resultCache.getOrCompute(lang, req.getSource(), stdin,
+                    () -> orchestrator.submitAndWait(user, lang, req.getSource(), stdin));
+        } catch (SystemBusyException | TooManyInFlightException e) {
+            throw e; // rejected before running: answered with 429 by GlobalExceptionHandler
         } catch (Exception e) {
             recordMetrics(lang.getCode(), ExecStatus.INTERNAL_ERROR, 0);
             Submission s = new Submission();
@@ -47,11 +54,12 @@ public class ExecuteService {
             s.setStderr(e.getClass().getSimpleName() + ": " + e.getMessage());
             s.setStatus(ExecStatus.INTERNAL_ERROR.name());
             s.setExecTimeMs(null);
-            submissions.save(s);
+            writer.write(s);
             return new ExecuteResponse("", s.getStderr(), ExecStatus.INTERNAL_ERROR, 0);
         }
 
         recordMetrics(lang.getCode(), r.status(), r.execTimeMs());
+        recordUsage(lang.getCode(), r.usage());
 
         Submission s = new Submission();
         if (user != null) s.setUserId(user.getId());
@@ -62,17 +70,93 @@ public class ExecuteService {
         s.setStderr(r.stderr());
         s.setStatus(r.status().name());
         s.setExecTimeMs(r.execTimeMs());
-        s.setMemoryKb(null);
-        submissions.save(s);
+        setUsage(s, r.usage());
+        writer.write(s);
 
-        return new ExecuteResponse(r.stdout(), r.stderr(), r.status(), r.execTimeMs());
+        return ExecuteResponse.from(r);
     }
 
-    private void recordMetrics(String language, ExecStatus status, int execTimeMs) {
+    /** Compiles once and runs every case in one sandbox; stored as a single submission without stdin. */
+    public BatchExecuteResponse executeBatch(User user, BatchExecuteRequest req) {
+        ExecLanguage lang = resolveLanguage(req.getLanguage());
+        List<DockerRunner.BatchCase> cases = req.getCases().stream()
+                .map(c -> new DockerRunner.BatchCase(c.getStdin(), c.getExpectedOutput()))
+                .toList();
+
+        Submission s = new Submission();
+        if (user != null) s.setUserId(user.getId());
+        s.setLanguageCode(req.getLanguage());
+        s.setSourceCode(req.getSource());
+
+        DockerRunner.BatchResult r;
+        try {
+            r = orchestrator.submitBatchAndWait(user, lang, req.getSource(), cases, req.isStopOnFirstFailure());
+        } catch (SystemBusyException | TooManyInFlightException e) {
+            throw e;
+        } catch (Exception e) {
+            recordMetrics(lang.getCode(), ExecStatus.INTERNAL_ERROR, 0);
+            s.setStdout("");
+            s.setStderr(e.getClass().getSimpleName() + ": " + e.getMessage());
+            s.setStatus(ExecStatus.INTERNAL_ERROR.name());
+            writer.write(s);
+            return new BatchExecuteResponse(ExecStatus.INTERNAL_ERROR, "", s.getStderr(), 0, cases.size(), List.of());
+        }
+
+        recordMetrics(lang.getCode(), r.status(), r.execTimeMs());
+        s.setStdout(r.stdout());
+        s.setStderr(r.stderr());
+        s.setStatus(r.status().name());
+        s.setExecTimeMs(r.execTimeMs());
+        writer.write(s);
+        return BatchExecuteResponse.from(r, cases.size());
+    }
+
+    ExecLanguage resolveLanguage(String code) {
+        return languages.find(code)
+                .filter(ExecLanguage::isEnabled)
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported or disabled language: " + code));
+    }
+
+    void recordMetrics(String language, ExecStatus status, int execTimeMs) {
         meters.counter("coderank.execute.requests", "language", language, "status", status.name()).increment();
         if (execTimeMs > 0) {
             meters.timer("coderank.execute.time", "language", language, "status", status.name())
                     .record(Duration.ofMillis(execTimeMs));
         }
     }
+
+    /** Histograms per language of what the sandbox's cgroup reported; missing values are skipped. */
+    void recordUsage(String language, DockerRunner.Usage u) {
+        if (u.compileMs() != null) histogram("coderank.execute.compile.time", language).record(Duration.ofMillis(u.compileMs()));
+        if (u.runMs() != null) histogram("coderank.execute.run.time", language).record(Duration.ofMillis(u.runMs()));
+        if (u.cpuTimeMs() != null) histogram("coderank.execute.cpu.time", language).record(Duration.ofMillis(u.cpuTimeMs()));
+        if (u.memoryKb() != null) {
+            DistributionSummary.builder("coderank.execute.memory")
+                    .baseUnit("bytes")
+                    .tag("language", language)
+                    .publishPercentileHistogram()
+                    .register(meters)
+                    .record(u.memoryKb() * 1024.0);
+        }
+        if (u.compileMemoryKb() != null) {
+            DistributionSummary.builder("coderank.execute.compile.memory")
+                    .baseUnit("bytes")
+                    .tag("language", language)
+                    .publishPercentileHistogram()
+                    .register(meters)
+                    .record(u.compileMemoryKb() * 1024.0);
+        }
+    }
+
+    private Timer histogram(String name, String language) {
+        return Timer.builder(name).tag("language", language).publishPercentileHistogram().register(meters);
+    }
+
+    static void setUsage(Submission s, DockerRunner.Usage u) {
+        s.setCompileTimeMs(u.compileMs());
+        s.setRunTimeMs(u.runMs());
+        s.setCpuTimeMs(u.cpuTimeMs());
+        s.setMemoryKb(u.memoryKb());
+        s.setCompileMemoryKb(u.compileMemoryKb());
+    }
 }
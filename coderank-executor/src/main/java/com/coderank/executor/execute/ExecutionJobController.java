@@ -0,0 +1,106 @@
+package com.coderank.executor.execute;
+
+import com.coderank.executor.submit.Submission;
+import com.coderank.executor.user.User;
+import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/api/executions")
+public class ExecutionJobController {
+    private static final long MAX_WAIT_SECONDS = 30;
+    private static final long SSE_TIMEOUT_MS = 120_000;
+
+    private final ExecutionJobService jobs;
+    private final LiveOutput liveOutput;
+
+    public ExecutionJobController(ExecutionJobService jobs, LiveOutput liveOutput) {
+        this.jobs = jobs;
+        this.liveOutput = liveOutput;
+    }
+
+    @PostMapping
+    public ResponseEntity<ExecutionResponse> submit(@AuthenticationPrincipal User user,
+                                                    @Valid @RequestBody ExecuteRequest req) {
+        ExecutionResponse r = jobs.submit(user, req);
+        return ResponseEntity.accepted().location(URI.create("/api/executions/" + r.getId())).body(r);
+    }
+
+    /**
+     * Runs the program and streams its output as server-sent events: "accepted", then "stdout" /
+     * "stderr" chunks as they are produced, and a final "result" with the stored submission.
+     */
+    @PostMapping("/stream")
+    public SseEmitter stream(@AuthenticationPrincipal User user, @Valid @RequestBody ExecuteRequest req) {
+        SseEmitter emitter = new SseEmitter(SSE_TIMEOUT_MS);
+        LiveOutput.Relay relay = liveOutput.open(emitter);
+        // admission errors are thrown before the stream starts and map to regular error responses
+        ExecutionJobService.Started started = jobs.start(user, req, relay);
+        relay.start("accepted", started.accepted());
+        started.done().thenAccept(done -> relay.finish("result", ExecutionResponse.from(done)));
+        abandonWhenClosed(emitter, started.accepted().getId(), started.done());
+        return emitter;
+    }
+
+    /** Returns the current state; with waitSeconds > 0 it long-polls until the run finishes. */
+    @GetMapping("/{id}")
+    public DeferredResult<ResponseEntity<ExecutionResponse>> get(@AuthenticationPrincipal User user,
+                                                                 @PathVariable UUID id,
+                                                                 @RequestParam(defaultValue = "0") long waitSeconds) {
+        long waitMs = Math.min(Math.max(waitSeconds, 0), MAX_WAIT_SECONDS) * 1000;
+        Submission s = jobs.find(id, user).orElse(null);
+        if (s == null || waitMs == 0) {
+            DeferredResult<ResponseEntity<ExecutionResponse>> out = new DeferredResult<>();
+            out.setResult(s == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(ExecutionResponse.from(s)));
+            return out;
+        }
+        DeferredResult<ResponseEntity<ExecutionResponse>> out =
+                new DeferredResult<>(waitMs, ResponseEntity.ok(ExecutionResponse.from(s)));
+        CompletableFuture<Submission> completion = jobs.completion(s);
+        completion.thenAccept(done -> out.setResult(ResponseEntity.ok(ExecutionResponse.from(done))));
+        // also runs after a timeout, when nobody waits for the completion any more
+        out.onCompletion(() -> jobs.abandon(s.getId(), completion));
+        return out;
+    }
+
+    /** Server-sent events: a "status" event right away and a "result" event when the run finishes. */
+    @GetMapping(path = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> events(@AuthenticationPrincipal User user, @PathVariable UUID id) {
+        Submission s = jobs.find(id, user).orElse(null);
+        if (s == null) return ResponseEntity.notFound().build();
+        SseEmitter emitter = new SseEmitter(SSE_TIMEOUT_MS);
+        try {
+            emitter.send(SseEmitter.event().name("status").data(ExecutionResponse.from(s)));
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+            return ResponseEntity.ok(emitter);
+        }
+        CompletableFuture<Submission> completion = jobs.completion(s);
+        abandonWhenClosed(emitter, s.getId(), completion);
+        completion.thenAccept(done -> {
+            try {
+                emitter.send(SseEmitter.event().name("result").data(ExecutionResponse.from(done)));
+                emitter.complete();
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+            }
+        });
+        return ResponseEntity.ok(emitter);
+    }
+
+    private void abandonWhenClosed(SseEmitter emitter, UUID id, CompletableFuture<Submission> completion) {
+        emitter.onCompletion(() -> jobs.abandon(id, completion));
+        emitter.onTimeout(() -> jobs.abandon(id, completion));
+        emitter.onError(e -> jobs.abandon(id, completion));
+    }
+}
@@ -0,0 +1,243 @@
+package com.coderank.executor.execute;
+
+import com.coderank.executor.language.ExecLanguage;
+import com.coderank.executor.submit.BlobStore;
+import com.coderank.executor.submit.Submission;
+import com.coderank.executor.submit.SubmissionRepository;
+import com.coderank.executor.user.User;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous executions: the submission row is written as QUEUED, the run goes through the
+ * orchestrator without parking the request thread, and the row is updated when it finishes.
+ * With app.exec.jobs.mode=postgres the run is instead queued in execution_jobs for a
+ * {@link JobWorker} on any node, and completion is noticed by polling the submission rows.
+ */
+@Service
+public class ExecutionJobService {
+    private static final Logger log = LoggerFactory.getLogger(ExecutionJobService.class);
+
+    private final ExecuteService executeService;
+    private final SubmissionRepository submissions;
+    private final BlobStore blobs;
+    private final ExecutionOrchestrator orchestrator;
+    private final JobQueue queue;
+    private final JobQueueProperties jobProps;
+    private final ConcurrentExecProperties execProps;
+    private final TransactionTemplate tx;
+    // local mode: completion signals of the jobs started by this node
+    private final ConcurrentHashMap<UUID, CompletableFuture<Submission>> running = new ConcurrentHashMap<>();
+    // postgres mode: one future per request waiting here, removed when the row finishes or the wait ends
+    private final ConcurrentHashMap<UUID, Set<CompletableFuture<Submission>>> waiters = new ConcurrentHashMap<>();
+    private final Instant startedAt = Instant.now();
+    private final ScheduledExecutorService watcher;
+
+    public ExecutionJobService(ExecuteService executeService,
+                               SubmissionRepository submissions,
+                               BlobStore blobs,
+                               ExecutionOrchestrator orchestrator,
+                               JobQueue queue,
+                               JobQueueProperties jobProps,
+                               ConcurrentExecProperties execProps,
+                               TransactionTemplate tx) {
+        this.executeService = executeService;
+        this.submissions = submissions;
+        this.blobs = blobs;
+        this.orchestrator = orchestrator;
+        this.queue = queue;
+        this.jobProps = jobProps;
+        this.execProps = execProps;
+        this.tx = tx;
+        if (jobProps.isPostgres()) {
+            watcher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "job-watcher");
+                t.setDaemon(true);
+                return t;
+            });
+            watcher.scheduleWithFixedDelay(this::checkWaiting, jobProps.getPollIntervalMs(),
+                    jobProps.getPollIntervalMs(), TimeUnit.MILLISECONDS);
+        } else {
+            watcher = null;
+        }
+    }
+
+    /** A started job: the QUEUED snapshot and a future that completes with the final row. */
+    public record Started(ExecutionResponse accepted, CompletableFuture<Submission> done) {}
+
+    public ExecutionResponse submit(User user, ExecuteRequest req) {
+        return start(user, req, OutputListener.NONE).accepted();
+    }
+
+    /**
+     * Like {@link #submit}, additionally forwarding the program's output while it runs. In postgres
+     * mode the run may happen on another node, so no output is forwarded.
+     */
+    public Started start(User user, ExecuteRequest req, OutputListener listener) {
+        ExecLanguage lang = executeService.resolveLanguage(req.getLanguage());
+        String stdin = Optional.ofNullable(req.getStdin()).orElse("");
+
+        Submission s = new Submission();
+        if (user != null) s.setUserId(user.getId());
+        s.setLanguageCode(lang.getCode());
+        s.setSourceCode(req.getSource());
+        s.setStdin(req.getStdin());
+        s.setStatus(ExecStatus.QUEUED.name());
+        if (jobProps.isPostgres()) return enqueue(s);
+        blobs.store(s);
+        submissions.save(s);
+        ExecutionResponse accepted = ExecutionResponse.from(s);
+
+        CompletableFuture<Submission> done = new CompletableFuture<>();
+        running.put(s.getId(), done);
+        CompletableFuture<DockerRunner.Result> run;
+        try {
+            run = orchestrator.submit(user, lang, req.getSource(), stdin, listener);
+        } catch (RuntimeException e) {
+            // rejected at admission: nothing was queued, so the row should not linger as QUEUED
+            running.remove(s.getId());
+            submissions.delete(s);
+            throw e;
+        }
+        run.whenComplete((r, e) -> finish(s, r, e, done));
+        return new Started(accepted, done);
+    }
+
+    private Started enqueue(Submission s) {
+        int queued = queue.queuedCount();
+        if (queued >= jobProps.getMaxQueued()) {
+            throw new SystemBusyException("queue", queued, null);
+        }
+        // the per-user cap counts job rows, which live until the run is stored or reaped on any node
+        int cap = execProps.getPerUserMaxInFlight();
+        tx.executeWithoutResult(status -> {
+            if (queue.lockActive(s.getUserId()) >= cap) {
+                throw new TooManyInFlightException(s.getUserId() != null ? String.valueOf(s.getUserId()) : null, cap);
+            }
+            blobs.store(s);
+            submissions.saveAndFlush(s); // the job row references it
+            queue.enqueue(s.getId(), s.getUserId());
+        });
+        return new Started(ExecutionResponse.from(s), completion(s));
+    }
+
+    public Optional<Submission> find(UUID id, User user) {
+        return submissions.findById(id).filter(s -> canRead(s, user));
+    }
+
+    /**
+     * Completes when the submission reaches a terminal status (immediately if it already has).
+     * Pass the future to {@link #abandon} when the caller stops waiting before that.
+     */
+    public CompletableFuture<Submission> completion(Submission s) {
+        if (ExecStatus.valueOf(s.getStatus()).isTerminal()) return CompletableFuture.completedFuture(s);
+        if (jobProps.isPostgres()) {
+            CompletableFuture<Submission> f = new CompletableFuture<>();
+            waiters.compute(s.getId(), (id, set) -> {
+                if (set == null) set = ConcurrentHashMap.newKeySet();
+                set.add(f);
+                return set;
+            });
+            return f;
+        }
+        CompletableFuture<Submission> f = running.get(s.getId());
+        if (f != null) return f;
+        // finished between the read and now: re-read the row
+        return CompletableFuture.completedFuture(submissions.findById(s.getId()).orElse(s));
+    }
+
+    /** Stops polling for a future from {@link #completion} whose caller went away, e.g. a timed-out long poll. */
+    public void abandon(UUID id, CompletableFuture<Submission> f) {
+        waiters.computeIfPresent(id, (k, set) -> {
+            set.remove(f);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    /**
+     * Local mode: a QUEUED row without a job row that is older than this process had its run in
+     * the memory of the previous one, so it would never finish. Such rows are failed at startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void failOrphaned() {
+        if (jobProps.isPostgres()) return;
+        try {
+            int failed = queue.failOrphaned(startedAt);
+            if (failed > 0) log.warn("Failed {} executions left queued by a previous run", failed);
+        } catch (RuntimeException e) {
+            log.warn("Failed to clean up queued executions: {}", e.getMessage());
+        }
+    }
+
+    private void finish(Submission s, DockerRunner.Result r, Throwable e, CompletableFuture<Submission> done) {
+        try {
+            applyResult(s, r, e);
+            blobs.store(s);
+            submissions.save(s);
+        } catch (RuntimeException ex) {
+            log.error("Failed to store result of execution {}", s.getId(), ex);
+        } finally {
+            running.remove(s.getId());
+            done.complete(s);
+        }
+    }
+
+    /** Copies the outcome of a run (r, or the failure e) into the row and records metrics. */
+    void applyResult(Submission s, DockerRunner.Result r, Throwable e) {
+        if (e != null) {
+            executeService.recordMetrics(s.getLanguageCode(), ExecStatus.INTERNAL_ERROR, 0);
+            s.setStdout("");
+            s.setStderr(e.getClass().getSimpleName() + ": " + e.getMessage());
+            s.setStatus(ExecStatus.INTERNAL_ERROR.name());
+        } else {
+            executeService.recordMetrics(s.getLanguageCode(), r.status(), r.execTimeMs());
+            executeService.recordUsage(s.getLanguageCode(), r.usage());
+            s.setStdout(r.stdout());
+            s.setStderr(r.stderr());
+            s.setStatus(r.status().name());
+            s.setExecTimeMs(r.execTimeMs());
+            ExecuteService.setUsage(s, r.usage());
+        }
+    }
+
+    // postgres mode: completes waiters whose rows have reached a terminal status
+    private void checkWaiting() {
+        if (waiters.isEmpty()) return;
+        try {
+            List<UUID> ids = List.copyOf(waiters.keySet());
+            for (Submission s : submissions.findAllById(ids)) {
+                if (!ExecStatus.valueOf(s.getStatus()).isTerminal()) continue;
+                Set<CompletableFuture<Submission>> done = waiters.remove(s.getId());
+                if (done != null) done.forEach(f -> f.complete(s));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to check queued executions: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (watcher != null) watcher.shutdownNow();
+    }
+
+    private static boolean canRead(Submission s, User user) {
+        if (user == null) return false;
+        return "ADMIN".equals(user.getRole()) || (user.getId() != null && user.getId().equals(s.getUserId()));
+    }
+}
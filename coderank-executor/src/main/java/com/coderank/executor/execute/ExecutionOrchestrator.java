@@ -1,72 +1,180 @@
 package com.coderank.executor.execute;
 
 import com.coderank.executor.language.ExecLanguage;
+import com.coderank.executor.quota.ClusterQuotas;
 import com.coderank.executor.user.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class ExecutionOrchestrator {
-    private final ThreadPoolExecutor pool;
-    private final Semaphore permits;
+    private final LanguageBulkheads lanes;
+    private final ConcurrencyLimiter limiter;
     private final DockerRunner dockerRunner;
     private final ConcurrentExecProperties props;
+    private final MeterRegistry meters;
+    private final ClusterQuotas quotas;
+    // per user on this node; a key is removed when its count returns to zero
     private final ConcurrentHashMap<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
 
-    public ExecutionOrchestrator(ThreadPoolExecutor pool,
-                                 Semaphore permits,
+    public ExecutionOrchestrator(LanguageBulkheads lanes,
+                                 ConcurrencyLimiter limiter,
                                  DockerRunner dockerRunner,
-                                 ConcurrentExecProperties props) {
-        this.pool = pool;
-        this.permits = permits;
+                                 ConcurrentExecProperties props,
+                                 MeterRegistry meters,
+                                 ClusterQuotas quotas) {
+        this.lanes = lanes;
+        this.limiter = limiter;
         this.dockerRunner = dockerRunner;
         this.props = props;
+        this.meters = meters;
+        this.quotas = quotas;
+        meters.gauge("coderank.exec.queue.size", lanes, LanguageBulkheads::queued);
+        meters.gauge("coderank.exec.queue.tenants", lanes, LanguageBulkheads::tenants);
+        meters.gauge("coderank.exec.limit", limiter, ConcurrencyLimiter::limit);
+        meters.gauge("coderank.exec.inflight", limiter, ConcurrencyLimiter::inFlight);
+        meters.gauge("coderank.exec.inflight.users", inFlight, ConcurrentHashMap::size);
     }
 
     public DockerRunner.Result submitAndWait(User user, ExecLanguage lang, String source, String stdin) {
+        return await(submit(user, lang, source, stdin));
+    }
+
+    /** Runs all cases in one sandbox under a single admission and permit. */
+    public DockerRunner.BatchResult submitBatchAndWait(User user, ExecLanguage lang, String source,
+                                                       List<DockerRunner.BatchCase> cases, boolean stopOnFirstFailure) {
+        // batch run time grows with the case count, so it is not a latency sample for the limiter
+        return await(admit(user, lang, null, () -> dockerRunner.runBatch(lang, source, cases, stopOnFirstFailure)));
+    }
+
+    private <T> T await(CompletableFuture<T> f) {
+        try {
+            return f.get();
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof RuntimeException re) throw re;
+            if (cause instanceof Error err) throw err;
+            throw new RuntimeException(cause);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new SystemBusyException("submit", queueSize(), limiter.limit());
+        }
+    }
+
+    /**
+     * Admits and queues an execution without waiting for it. Admission failures are thrown right
+     * away (TooManyInFlightException / SystemBusyException); run failures complete the future.
+     */
+    public CompletableFuture<DockerRunner.Result> submit(User user, ExecLanguage lang, String source, String stdin) {
+        return submit(user, lang, source, stdin, OutputListener.NONE);
+    }
+
+    public CompletableFuture<DockerRunner.Result> submit(User user, ExecLanguage lang, String source, String stdin,
+                                                         OutputListener listener) {
+        return admit(user, lang, lang.getCode(), () -> dockerRunner.run(lang, source, stdin, listener));
+    }
+
+    /**
+     * Queues a job claimed from execution_jobs in its language lane. Its per-user cap was applied
+     * when it was enqueued, so only the lanes, the resource budget and the limiter apply here; the
+     * tenant keeps it in the user's fair share. Throws SystemBusyException if the lane stays full.
+     */
+    public CompletableFuture<DockerRunner.Result> submitJob(UUID userId, ExecLanguage lang, String source, String stdin) {
+        String key = userId != null ? "u:" + userId : "u:anon";
+        return schedule(key, "JOB", lang, lang.getCode(), () -> dockerRunner.run(lang, source, stdin, OutputListener.NONE));
+    }
+
+    /**
+     * sampleKey: the workload whose sandbox start latency the run is compared within by the limiter,
+     * or null for none. Warm and cold starts are kept apart, as an exec in a pooled container is much
+     * quicker than creating one.
+     */
+    private <T> CompletableFuture<T> admit(User user, ExecLanguage lang, String sampleKey, Callable<T> work) {
         String key = (user != null && user.getId() != null) ? "u:" + user.getId() : "u:anon";
-        AtomicInteger counter = inFlight.computeIfAbsent(key, k -> new AtomicInteger());
-        if (counter.get() >= props.getPerUserMaxInFlight()) {
-            throw new TooManyInFlightException(user != null ? String.valueOf(user.getId()) : null, props.getPerUserMaxInFlight());
+        int cap = props.getPerUserMaxInFlight();
+        if (!enter(key, cap)) throw new TooManyInFlightException(user != null ? String.valueOf(user.getId()) : null, cap);
+        // across nodes too, when quotas are shared; LOCAL leaves it at the per-node cap just taken
+        ClusterQuotas.Verdict slot = quotas.claimSlot(key, cap);
+        if (slot == ClusterQuotas.Verdict.DENIED) {
+            leave(key, false);
+            throw new TooManyInFlightException(user != null ? String.valueOf(user.getId()) : null, cap);
         }
-        counter.incrementAndGet();
+        boolean shared = slot == ClusterQuotas.Verdict.ALLOWED;
+        String role = user != null && user.getRole() != null ? user.getRole() : "ANON";
+        CompletableFuture<T> result;
         try {
-            FutureTask<DockerRunner.Result> task = new FutureTask<>(() -> {
-                if (!permits.tryAcquire(props.getPermitTimeoutMs(), TimeUnit.MILLISECONDS)) {
-                    throw new SystemBusyException("permits", pool.getQueue().size(), props.getMaxConcurrent());
-                }
-                try {
-                    return dockerRunner.run(lang, source, stdin);
-                } finally {
-                    permits.release();
-                }
-            });
-            boolean queued;
-            try {
-                queued = pool.getQueue().offer(task, props.getSubmitTimeoutMs(), TimeUnit.MILLISECONDS);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new SystemBusyException("submit", pool.getQueue().size(), props.getMaxConcurrent());
-            }
-            if (!queued) {
-                throw new SystemBusyException("submit", pool.getQueue().size(), props.getMaxConcurrent());
-            }
+            result = schedule(key, role, lang, sampleKey, work);
+        } catch (RuntimeException e) {
+            leave(key, shared);
+            throw e;
+        }
+        result.whenComplete((r, e) -> leave(key, shared));
+        return result;
+    }
+
+    // queues the work in the language's lane; SystemBusyException if there is no space within submitTimeoutMs
+    private <T> CompletableFuture<T> schedule(String key, String role, ExecLanguage lang, String sampleKey, Callable<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        // tagged per role rather than per user: user ids would make the tag set unbounded
+        Timer queueWait = meters.timer("coderank.exec.queue.wait", "role", role);
+        // the dispatcher took a limiter permit before starting this; it is returned here
+        ScheduledTask task = new ScheduledTask(key, props.weightFor(role), queueWait, () -> {
+            long startNs = System.nanoTime();
+            String sample = null;
+            long sampleNs = 0;
             try {
-                return task.get();
-            } catch (ExecutionException ee) {
-                Throwable cause = ee.getCause();
-                if (cause instanceof RuntimeException re) throw re;
-                if (cause instanceof Error err) throw err;
-                throw new RuntimeException(cause);
-            } catch (InterruptedException ie) {
-                Thread.currentThread().interrupt();
-                throw new SystemBusyException("submit", pool.getQueue().size(), props.getMaxConcurrent());
+                T r = work.call();
+                // how long the daemon took to start the sandbox; the rest of the wall time is the program's own
+                if (sampleKey != null && r instanceof DockerRunner.Result res && res.startup().nanos() >= 0) {
+                    sample = sampleKey + (res.startup().warm() ? ":warm" : ":cold");
+                    sampleNs = res.startup().nanos();
+                }
+                result.complete(r);
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            } finally {
+                limiter.release(sample, startNs, sampleNs);
             }
-        } finally {
-            counter.decrementAndGet();
+        });
+        boolean queued = false;
+        try {
+            queued = lanes.offer(lang, task, props.getSubmitTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
+        if (!queued) {
+            throw new SystemBusyException("submit", queueSize(), limiter.limit());
+        }
+        return result;
+    }
+
+    // check and increment as one step, so concurrent submits cannot both pass at cap - 1
+    private boolean enter(String key, int cap) {
+        boolean[] entered = {false};
+        inFlight.compute(key, (k, n) -> {
+            if (n == null) n = new AtomicInteger();
+            if (n.get() < cap) {
+                n.incrementAndGet();
+                entered[0] = true;
+            }
+            return n.get() == 0 ? null : n;
+        });
+        return entered[0];
+    }
+
+    private void leave(String key, boolean shared) {
+        inFlight.computeIfPresent(key, (k, n) -> n.decrementAndGet() <= 0 ? null : n);
+        if (shared) quotas.releaseSlot(key);
+    }
+
+    private int queueSize() {
+        return lanes.queued();
     }
 }
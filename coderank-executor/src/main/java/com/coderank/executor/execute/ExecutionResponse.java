@@ -0,0 +1,66 @@
+package com.coderank.executor.execute;
+
+import com.coderank.executor.submit.Submission;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/** State of an asynchronous execution, read from its submission row. */
+public class ExecutionResponse {
+    private final UUID id;
+    private final String language;
+    private final String status;
+    private final boolean done;
+    private final boolean truncated;
+    private final String stdout;
+    private final String stderr;
+    private final Integer execTimeMs;
+    private final Integer compileTimeMs;
+    private final Integer runTimeMs;
+    private final Integer cpuTimeMs;
+    private final Integer memoryKb;
+    private final Integer compileMemoryKb;
+    private final Instant createdAt;
+
+    public ExecutionResponse(UUID id, String language, String status, boolean done,
+                             String stdout, String stderr, Integer execTimeMs, Integer compileTimeMs,
+                             Integer runTimeMs, Integer cpuTimeMs, Integer memoryKb, Integer compileMemoryKb,
+                             Instant createdAt) {
+        this.id = id;
+        this.language = language;
+        this.status = status;
+        this.done = done;
+        this.truncated = ExecStatus.OUTPUT_LIMIT_EXCEEDED.name().equals(status);
+        this.stdout = stdout;
+        this.stderr = stderr;
+        this.execTimeMs = execTimeMs;
+        this.compileTimeMs = compileTimeMs;
+        this.runTimeMs = runTimeMs;
+        this.cpuTimeMs = cpuTimeMs;
+        this.memoryKb = memoryKb;
+        this.compileMemoryKb = compileMemoryKb;
+        this.createdAt = createdAt;
+    }
+
+    public static ExecutionResponse from(Submission s) {
+        boolean done = ExecStatus.valueOf(s.getStatus()).isTerminal();
+        return new ExecutionResponse(s.getId(), s.getLanguageCode(), s.getStatus(), done,
+                s.getStdout(), s.getStderr(), s.getExecTimeMs(), s.getCompileTimeMs(),
+                s.getRunTimeMs(), s.getCpuTimeMs(), s.getMemoryKb(), s.getCompileMemoryKb(), s.getCreatedAt());
+    }
+
+    public UUID getId() { return id; }
+    public String getLanguage() { return language; }
+    public String getStatus() { return status; }
+    public boolean isDone() { return done; }
+    public boolean isTruncated() { return truncated; }
+    public String getStdout() { return stdout; }
+    public String getStderr() { return stderr; }
+    public Integer getExecTimeMs() { return execTimeMs; }
+    public Integer getCompileTimeMs() { return compileTimeMs; }
+    public Integer getRunTimeMs() { return runTimeMs; }
+    public Integer getCpuTimeMs() { return cpuTimeMs; }
+    public Integer getMemoryKb() { return memoryKb; }
+    public Integer getCompileMemoryKb() { return compileMemoryKb; }
+    public Instant getCreatedAt() { return createdAt; }
+}
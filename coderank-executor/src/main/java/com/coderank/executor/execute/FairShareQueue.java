@@ -0,0 +1,86 @@
+package com.coderank.executor.execute;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Exec lane queue with one virtual queue per tenant, served by deficit round robin: each turn
+ * a tenant may start up to its weight in executions before the next tenant is served. A tenant
+ * that floods the queue only lengthens its own backlog. Tasks that are not {@link ScheduledTask}s
+ * share a single "system" tenant. Unbounded and not thread-safe: {@link LanguageBulkheads} bounds
+ * each lane and only touches its queue under the bulkheads lock.
+ */
+public class FairShareQueue extends AbstractQueue<Runnable> {
+    private final Map<String, Flow> flows = new HashMap<>();
+    private final ArrayDeque<Flow> active = new ArrayDeque<>(); // round-robin order of non-empty flows
+    private int count;
+
+    private static final class Flow {
+        final String tenant;
+        final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        int weight;
+        int deficit;
+
+        Flow(String tenant) { this.tenant = tenant; }
+    }
+
+    @Override
+    public boolean offer(Runnable r) {
+        if (r == null) throw new NullPointerException();
+        String tenant = (r instanceof ScheduledTask t) ? t.tenant : "system";
+        int weight = (r instanceof ScheduledTask t) ? t.weight : 1;
+        Flow f = flows.get(tenant);
+        if (f == null) {
+            f = new Flow(tenant);
+            flows.put(tenant, f);
+            active.addLast(f);
+        }
+        f.weight = weight;
+        f.tasks.addLast(r);
+        count++;
+        return true;
+    }
+
+    @Override
+    public Runnable poll() {
+        Flow f = active.peekFirst();
+        if (f == null) return null;
+        if (f.deficit < 1) f.deficit += f.weight; // the flow's turn starts: grant its quantum
+        f.deficit--;
+        Runnable r = f.tasks.pollFirst();
+        if (f.tasks.isEmpty()) {
+            // an idle tenant keeps no credit, so it cannot save up a burst
+            active.pollFirst();
+            flows.remove(f.tenant);
+        } else if (f.deficit < 1) {
+            active.addLast(active.pollFirst());
+        }
+        count--;
+        return r;
+    }
+
+    @Override
+    public Runnable peek() {
+        Flow f = active.peekFirst();
+        return f == null ? null : f.tasks.peekFirst();
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    /** Number of tenants with queued work. */
+    public int tenants() {
+        return active.size();
+    }
+
+    /** In no particular order; removal through the iterator is not supported. */
+    @Override
+    public Iterator<Runnable> iterator() {
+        return active.stream().flatMap(f -> f.tasks.stream()).iterator();
+    }
+}
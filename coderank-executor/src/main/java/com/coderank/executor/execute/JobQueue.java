@@ -0,0 +1,147 @@
+package com.coderank.executor.execute;
+
+import com.coderank.executor.submit.BlobStore;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The execution_jobs table. A row exists while its submission is QUEUED or running on a worker;
+ * the job's input lives in the submission row. All times are database time, so worker clocks
+ * do not matter.
+ */
+@Component
+public class JobQueue {
+    private static final String LOST = "Execution lost: worker stopped responding";
+    private static final String EMPTY_HASH = BlobStore.hash("");
+    private static final String LOST_HASH = BlobStore.hash(LOST);
+    private static final String RESTARTED = "Execution lost: server restarted";
+
+    private final JdbcTemplate jdbc;
+    private final BlobStore blobs;
+
+    public JobQueue(JdbcTemplate jdbc, BlobStore blobs) {
+        this.jdbc = jdbc;
+        this.blobs = blobs;
+    }
+
+    public void enqueue(UUID submissionId, UUID userId) {
+        jdbc.update("INSERT INTO execution_jobs (submission_id, user_id) VALUES (?, ?)", submissionId, userId);
+    }
+
+    /**
+     * Number of jobs the user (null: anonymous) has queued or running. Call it inside the
+     * enqueueing transaction: it takes the user's lock until commit, so two enqueues for one user
+     * cannot both see cap - 1. A job stops counting when its row is deleted, by
+     * {@link #complete} or {@link #reapExpired}.
+     */
+    public int lockActive(UUID userId) {
+        jdbc.queryForList("SELECT pg_advisory_xact_lock(hashtext(?))", "execution_jobs:" + userId);
+        Integer n = userId == null
+                ? jdbc.queryForObject("SELECT COUNT(*) FROM execution_jobs WHERE user_id IS NULL", Integer.class)
+                : jdbc.queryForObject("SELECT COUNT(*) FROM execution_jobs WHERE user_id = ?", Integer.class, userId);
+        return n == null ? 0 : n;
+    }
+
+    public int queuedCount() {
+        Integer n = jdbc.queryForObject("SELECT COUNT(*) FROM execution_jobs WHERE state = 'QUEUED'", Integer.class);
+        return n == null ? 0 : n;
+    }
+
+    /** Leases the oldest queued job to the worker; null if there is none. Concurrent claims skip each other's rows. */
+    public UUID claim(String workerId, int leaseSeconds) {
+        List<UUID> ids = jdbc.queryForList("""
+                UPDATE execution_jobs
+                   SET state = 'RUNNING', worker_id = ?, attempts = attempts + 1,
+                       lease_until = NOW() + (? * INTERVAL '1 second')
+                 WHERE submission_id = (SELECT submission_id FROM execution_jobs
+                                         WHERE state = 'QUEUED'
+                                         ORDER BY created_at
+                                         LIMIT 1
+                                         FOR UPDATE SKIP LOCKED)
+                RETURNING submission_id
+                """, UUID.class, workerId, leaseSeconds);
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+
+    /** Extends the leases of every job the worker holds. */
+    public int heartbeat(String workerId, int leaseSeconds) {
+        return jdbc.update("""
+                UPDATE execution_jobs SET lease_until = NOW() + (? * INTERVAL '1 second')
+                 WHERE worker_id = ? AND state = 'RUNNING'
+                """, leaseSeconds, workerId);
+    }
+
+    /**
+     * Removes a finished job. False if the worker no longer holds it (its lease expired and it
+     * was re-queued), in which case the caller must not store its result.
+     */
+    public boolean complete(UUID submissionId, String workerId) {
+        return jdbc.update("DELETE FROM execution_jobs WHERE submission_id = ? AND worker_id = ? AND state = 'RUNNING'",
+                submissionId, workerId) == 1;
+    }
+
+    /** Puts one job the worker holds back in the queue, without counting the claim as an attempt. */
+    public boolean requeue(UUID submissionId, String workerId) {
+        return jdbc.update("""
+                UPDATE execution_jobs SET state = 'QUEUED', worker_id = NULL, lease_until = NULL, attempts = attempts - 1
+                 WHERE submission_id = ? AND worker_id = ? AND state = 'RUNNING'
+                """, submissionId, workerId) == 1;
+    }
+
+    /** Puts the worker's jobs back in the queue, e.g. when it shuts down. */
+    public int release(String workerId) {
+        return jdbc.update("""
+                UPDATE execution_jobs SET state = 'QUEUED', worker_id = NULL, lease_until = NULL, attempts = attempts - 1
+                 WHERE worker_id = ? AND state = 'RUNNING'
+                """, workerId);
+    }
+
+    /**
+     * Re-queues jobs whose worker stopped heartbeating; those already claimed maxAttempts times
+     * are removed and their submissions marked INTERNAL_ERROR. Returns the number of jobs handled.
+     */
+    public int reapExpired(int maxAttempts) {
+        int requeued = jdbc.update("""
+                UPDATE execution_jobs SET state = 'QUEUED', worker_id = NULL, lease_until = NULL
+                 WHERE state = 'RUNNING' AND lease_until < NOW() AND attempts < ?
+                """, maxAttempts);
+        Boolean dead = jdbc.queryForObject("""
+                SELECT EXISTS (SELECT 1 FROM execution_jobs
+                                WHERE state = 'RUNNING' AND lease_until < NOW() AND attempts >= ?)
+                """, Boolean.class, maxAttempts);
+        if (!Boolean.TRUE.equals(dead)) return requeued;
+        blobs.put("");
+        blobs.put(LOST);
+        int failed = jdbc.update("""
+                WITH dead AS (
+                    DELETE FROM execution_jobs
+                     WHERE state = 'RUNNING' AND lease_until < NOW() AND attempts >= ?
+                    RETURNING submission_id
+                )
+                UPDATE submissions SET status = 'INTERNAL_ERROR', stdout_hash = ?, stderr_hash = ?
+                 WHERE id IN (SELECT submission_id FROM dead)
+                """, maxAttempts, EMPTY_HASH, LOST_HASH);
+        return requeued + failed;
+    }
+
+    /**
+     * Marks QUEUED submissions created before the given time that have no job row INTERNAL_ERROR.
+     * In local mode the run of such a row lived in the memory of a process that has since stopped.
+     */
+    public int failOrphaned(Instant createdBefore) {
+        blobs.put("");
+        blobs.put(RESTARTED);
+        // TIMESTAMP without zone holds UTC, as written by Hibernate (hibernate.jdbc.time_zone)
+        return jdbc.update("""
+                UPDATE submissions s SET status = 'INTERNAL_ERROR', stdout_hash = ?, stderr_hash = ?
+                 WHERE s.status = 'QUEUED' AND s.created_at < ?
+                   AND NOT EXISTS (SELECT 1 FROM execution_jobs j WHERE j.submission_id = s.id)
+                """, EMPTY_HASH, BlobStore.hash(RESTARTED), LocalDateTime.ofInstant(createdBefore, ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,33 @@
+package com.coderank.executor.execute;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.exec.jobs")
+public class JobQueueProperties {
+    private String mode = "local";       // local (run on the accepting node) | postgres (execution_jobs table)
+    private boolean worker = true;       // postgres mode: claim and run jobs on this node
+    private String workerId = "";        // defaults to hostname + random suffix
+    private int pollIntervalMs = 250;    // idle claim loop / completion check interval
+    private int leaseSeconds = 30;       // a claimed job not heartbeated for this long is re-queued
+    private int heartbeatSeconds = 10;
+    private int maxAttempts = 3;         // claims before a job whose worker keeps disappearing is failed
+    private int maxQueued = 1000;        // backlog above which new jobs are rejected with 429
+
+    public String getMode() { return mode; }
+    public void setMode(String mode) { this.mode = mode; }
+    public boolean isPostgres() { return "postgres".equalsIgnoreCase(mode); }
+    public boolean isWorker() { return worker; }
+    public void setWorker(boolean worker) { this.worker = worker; }
+    public String getWorkerId() { return workerId; }
+    public void setWorkerId(String workerId) { this.workerId = workerId; }
+    public int getPollIntervalMs() { return pollIntervalMs; }
+    public void setPollIntervalMs(int pollIntervalMs) { this.pollIntervalMs = pollIntervalMs; }
+    public int getLeaseSeconds() { return leaseSeconds; }
+    public void setLeaseSeconds(int leaseSeconds) { this.leaseSeconds = leaseSeconds; }
+    public int getHeartbeatSeconds() { return heartbeatSeconds; }
+    public void setHeartbeatSeconds(int heartbeatSeconds) { this.heartbeatSeconds = heartbeatSeconds; }
+    public int getMaxAttempts() { return maxAttempts; }
+    public void setMaxAttempts(int maxAttempts) { this.maxAttempts = maxAttempts; }
+    public int getMaxQueued() { return maxQueued; }
+    public void setMaxQueued(int maxQueued) { this.maxQueued = maxQueued; }
+}
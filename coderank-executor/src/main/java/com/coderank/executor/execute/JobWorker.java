@@ -0,0 +1,211 @@
+package com.coderank.executor.execute;
+
+import com.coderank.executor.language.ExecLanguage;
+import com.coderank.executor.submit.BlobStore;
+import com.coderank.executor.submit.Submission;
+import com.coderank.executor.submit.SubmissionRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Postgres-mode worker: claims jobs from execution_jobs while it holds fewer than the concurrency
+ * limiter's limit, queues each in its language lane through {@link ExecutionOrchestrator} (so the
+ * lane caps, per-user fair share and the resource budget apply as they do to local runs) and
+ * stores the result in the submission row. Leases are heartbeated; jobs of workers that stop heartbeating are re-queued
+ * by whichever worker reaps first.
+ */
+@Component
+public class JobWorker {
+    private static final Logger log = LoggerFactory.getLogger(JobWorker.class);
+
+    private final JobQueueProperties props;
+    private final JobQueue queue;
+    private final SubmissionRepository submissions;
+    private final BlobStore blobs;
+    private final ExecuteService executeService;
+    private final ExecutionJobService jobs;
+    private final ExecutionOrchestrator orchestrator;
+    private final ConcurrencyLimiter limiter;
+    private final ExecutorService runners;
+    private final TransactionTemplate tx;
+    private final String workerId;
+    private final ScheduledExecutorService maintenance;
+    // jobs claimed by this worker and not yet stored, including those still waiting in a lane
+    private final AtomicInteger held = new AtomicInteger();
+    private volatile boolean stopped;
+    private Thread claimer;
+
+    public JobWorker(JobQueueProperties props,
+                     JobQueue queue,
+                     SubmissionRepository submissions,
+                     BlobStore blobs,
+                     ExecuteService executeService,
+                     ExecutionJobService jobs,
+                     ExecutionOrchestrator orchestrator,
+                     ConcurrencyLimiter limiter,
+                     @Qualifier("execVirtualThreads") ExecutorService runners,
+                     TransactionTemplate tx) {
+        this.props = props;
+        this.queue = queue;
+        this.submissions = submissions;
+        this.blobs = blobs;
+        this.executeService = executeService;
+        this.jobs = jobs;
+        this.orchestrator = orchestrator;
+        this.limiter = limiter;
+        this.runners = runners;
+        this.tx = tx;
+        this.workerId = props.getWorkerId().isBlank() ? defaultWorkerId() : props.getWorkerId();
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "job-maintenance");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!props.isPostgres() || !props.isWorker()) return;
+        log.info("Job worker {} started", workerId);
+        maintenance.scheduleWithFixedDelay(this::maintain, props.getHeartbeatSeconds(),
+                props.getHeartbeatSeconds(), TimeUnit.SECONDS);
+        claimer = new Thread(this::claimLoop, "job-claimer");
+        claimer.setDaemon(true);
+        claimer.start();
+    }
+
+    private void claimLoop() {
+        while (!stopped) {
+            try {
+                // claim no more than the host can start; the rest stays in the table for other workers
+                if (held.get() >= limiter.limit()) {
+                    Thread.sleep(props.getPollIntervalMs());
+                    continue;
+                }
+                UUID id = queue.claim(workerId, props.getLeaseSeconds());
+                if (id == null) {
+                    Thread.sleep(props.getPollIntervalMs());
+                    continue;
+                }
+                held.incrementAndGet();
+                runners.execute(() -> dispatch(id));
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Job claim failed: {}", e.getMessage());
+                sleepQuietly();
+            }
+        }
+    }
+
+    private void dispatch(UUID id) {
+        boolean queued = false;
+        try {
+            Optional<Submission> row = submissions.findById(id);
+            if (row.isEmpty()) {
+                queue.complete(id, workerId);
+                return;
+            }
+            Submission s = row.get();
+            CompletableFuture<DockerRunner.Result> run;
+            try {
+                ExecLanguage lang = executeService.resolveLanguage(s.getLanguageCode());
+                String stdin = Optional.ofNullable(s.getStdin()).orElse("");
+                run = orchestrator.submitJob(s.getUserId(), lang, s.getSourceCode(), stdin);
+            } catch (SystemBusyException e) {
+                // the lane stayed full: hand the job back to this or another worker
+                queue.requeue(id, workerId);
+                return;
+            } catch (RuntimeException e) {
+                run = CompletableFuture.failedFuture(e);
+            }
+            queued = true;
+            run.whenComplete((r, e) -> {
+                try {
+                    // interrupted when shutting down; the job is released or its lease expires
+                    if (!(e instanceof InterruptedException)) store(id, s, r, e);
+                } finally {
+                    held.decrementAndGet();
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Failed to dispatch job {}", id, e);
+        } finally {
+            if (!queued) held.decrementAndGet();
+        }
+    }
+
+    private void store(UUID id, Submission s, DockerRunner.Result r, Throwable e) {
+        try {
+            tx.executeWithoutResult(status -> {
+                if (!queue.complete(id, workerId)) {
+                    log.warn("Lost the lease on job {}; dropping its result", id);
+                    return;
+                }
+                jobs.applyResult(s, r, e);
+                blobs.store(s);
+                submissions.save(s);
+            });
+        } catch (RuntimeException ex) {
+            log.error("Failed to finish job {}", id, ex);
+        }
+    }
+
+    private void maintain() {
+        try {
+            queue.heartbeat(workerId, props.getLeaseSeconds());
+            int reaped = queue.reapExpired(props.getMaxAttempts());
+            if (reaped > 0) log.warn("Re-queued or failed {} jobs with expired leases", reaped);
+        } catch (RuntimeException e) {
+            log.warn("Job heartbeat failed: {}", e.getMessage());
+        }
+    }
+
+    private void sleepQuietly() {
+        try {
+            Thread.sleep(props.getPollIntervalMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String defaultWorkerId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "worker";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopped = true;
+        maintenance.shutdownNow();
+        if (claimer == null) return;
+        claimer.interrupt();
+        try {
+            int released = queue.release(workerId);
+            if (released > 0) log.info("Returned {} running jobs to the queue", released);
+        } catch (RuntimeException e) {
+            log.warn("Failed to release jobs on shutdown: {}", e.getMessage());
+        }
+    }
+}
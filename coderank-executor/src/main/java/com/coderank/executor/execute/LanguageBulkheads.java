@@ -0,0 +1,274 @@
+package com.coderank.executor.execute;
+
+import com.coderank.executor.language.ExecLanguage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One lane per language, each with its own queue and its own cap on running executions, so a
+ * burst in one language cannot take the slots or the queue space of another. A dispatcher
+ * thread takes a permit from the {@link ConcurrencyLimiter} (the host-wide cap), picks the next
+ * lane round robin that has work and room, and hands its next task to the exec threads. With
+ * borrowIdle, a lane at its cap may still start work while no other lane has anything waiting.
+ * A lane is also only picked while its sandbox size fits the {@link ResourceBudget}, so smaller
+ * jobs fill the gaps a large one cannot use; a lane passed over maxSkips times in a row is
+ * waited for instead. Per-language limits come from the languages table and default to the
+ * global settings.
+ */
+@Component
+public class LanguageBulkheads {
+    private static final Logger log = LoggerFactory.getLogger(LanguageBulkheads.class);
+
+    private final ConcurrentExecProperties props;
+    private final ExecProperties execProps;
+    private final ConcurrencyLimiter limiter;
+    private final ResourceBudget budget;
+    private final int maxSkips;
+    private final Executor executor;
+    private final MeterRegistry meters;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workReady = lock.newCondition();
+    private final Condition spaceFreed = lock.newCondition();
+    private final Map<String, Lane> lanes = new HashMap<>();
+    private final List<Lane> order = new ArrayList<>(); // round-robin order
+    private final Thread dispatcher;
+    private int next;
+    private volatile boolean stopped;
+
+    private static final class Lane {
+        final String language;
+        final Queue<Runnable> queue;
+        int maxConcurrent;
+        int queueCapacity;
+        SandboxLimits limits;
+        int running;
+        int skips; // times other lanes were started while this one's job did not fit
+
+        Lane(String language, Queue<Runnable> queue) {
+            this.language = language;
+            this.queue = queue;
+        }
+    }
+
+    public LanguageBulkheads(ConcurrentExecProperties props,
+                             ExecProperties execProps,
+                             ConcurrencyLimiter limiter,
+                             ResourceBudget budget,
+                             ResourceBudgetProperties budgetProps,
+                             ThreadPoolExecutor execPool,
+                             @Qualifier("execVirtualThreads") ExecutorService virtualThreads,
+                             MeterRegistry meters) {
+        this.props = props;
+        this.execProps = execProps;
+        this.limiter = limiter;
+        this.budget = budget;
+        this.maxSkips = budgetProps.getMaxSkips();
+        this.executor = props.isVirtualThreads() ? virtualThreads : execPool;
+        this.meters = meters;
+        this.dispatcher = new Thread(this::dispatchLoop, "exec-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /**
+     * Queues a task in the language's lane, waiting up to the timeout for space. The task must
+     * release one limiter permit when it finishes.
+     */
+    public boolean offer(ExecLanguage lang, Runnable task, long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            Lane lane = lane(lang);
+            while (lane.queue.size() >= lane.queueCapacity) {
+                if (nanos <= 0) return false;
+                nanos = spaceFreed.awaitNanos(nanos);
+            }
+            lane.queue.offer(task);
+            workReady.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Executions waiting in all lanes. */
+    public int queued() {
+        lock.lock();
+        try {
+            int n = 0;
+            for (Lane l : order) n += l.queue.size();
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Tenants with waiting executions, summed over lanes (fair scheduler only). */
+    public int tenants() {
+        lock.lock();
+        try {
+            int n = 0;
+            for (Lane l : order) if (l.queue instanceof FairShareQueue f) n += f.tenants();
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // creates the lane on first use and picks up limit changes made through the admin API
+    private Lane lane(ExecLanguage lang) {
+        Lane lane = lanes.get(lang.getCode());
+        if (lane == null) {
+            // the lane's capacity is enforced here, so its queue itself is unbounded
+            Queue<Runnable> q = props.isFairScheduler() ? new FairShareQueue() : new ArrayDeque<>();
+            lane = new Lane(lang.getCode(), q);
+            lanes.put(lane.language, lane);
+            order.add(lane);
+            Lane l = lane;
+            meters.gauge("coderank.exec.lane.queued", Tags.of("language", l.language), this, b -> b.laneQueued(l));
+            meters.gauge("coderank.exec.lane.running", Tags.of("language", l.language), this, b -> b.laneRunning(l));
+        }
+        lane.maxConcurrent = lang.getMaxConcurrent() != null ? lang.getMaxConcurrent() : props.peakConcurrent();
+        lane.queueCapacity = lang.getQueueCapacity() != null ? lang.getQueueCapacity() : props.getQueueCapacity();
+        lane.limits = SandboxLimits.of(lang, execProps);
+        return lane;
+    }
+
+    private double laneQueued(Lane l) {
+        lock.lock();
+        try {
+            return l.queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private double laneRunning(Lane l) {
+        lock.lock();
+        try {
+            return l.running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void dispatchLoop() {
+        while (!stopped) {
+            try {
+                lock.lockInterruptibly();
+                try {
+                    while (pick(false) == null) workReady.await();
+                } finally {
+                    lock.unlock();
+                }
+                limiter.acquire();
+                Lane lane;
+                Runnable task;
+                SandboxLimits limits;
+                lock.lockInterruptibly();
+                try {
+                    lane = pick(true);
+                    if (lane == null) {
+                        limiter.release(); // the work went away while waiting for the permit
+                        continue;
+                    }
+                    task = lane.queue.poll();
+                    lane.running++;
+                    limits = lane.limits;
+                    budget.reserve(limits);
+                    spaceFreed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                start(lane, limits, task);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void start(Lane lane, SandboxLimits limits, Runnable task) {
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    finished(lane, limits);
+                }
+            });
+        } catch (RuntimeException e) {
+            // rejected (shutting down): the task never runs, so its permit is returned here
+            log.warn("Could not start {} execution: {}", lane.language, e.getMessage());
+            finished(lane, limits);
+            limiter.release();
+        }
+    }
+
+    private void finished(Lane lane, SandboxLimits limits) {
+        lock.lock();
+        try {
+            lane.running--;
+            budget.release(limits);
+            workReady.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // next lane round robin with queued work, room and a job that fits the budget; a full lane may
+    // borrow while no other lane waits. advance=false only looks.
+    private Lane pick(boolean advance) {
+        int n = order.size();
+        for (Lane l : order) {
+            // a lane passed over too often reserves the next start: nothing else starts until it fits
+            if (l.skips >= maxSkips && hasRoom(l)) return budget.fits(l.limits) ? chosen(l, advance) : null;
+        }
+        Lane borrower = null;
+        for (int i = 0; i < n; i++) {
+            Lane l = order.get((next + i) % n);
+            if (l.queue.isEmpty() || !budget.fits(l.limits)) continue;
+            if (l.running < l.maxConcurrent) return chosen(l, advance);
+            if (borrower == null) borrower = l;
+        }
+        if (borrower != null && props.isBorrowIdle()) return chosen(borrower, advance);
+        return null;
+    }
+
+    private Lane chosen(Lane lane, boolean advance) {
+        if (!advance) return lane;
+        next = (order.indexOf(lane) + 1) % order.size();
+        lane.skips = 0;
+        for (Lane l : order) {
+            if (l != lane && hasRoom(l) && !budget.fits(l.limits)) l.skips++;
+        }
+        return lane;
+    }
+
+    private static boolean hasRoom(Lane l) {
+        return !l.queue.isEmpty() && l.running < l.maxConcurrent;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopped = true;
+        dispatcher.interrupt();
+    }
+}
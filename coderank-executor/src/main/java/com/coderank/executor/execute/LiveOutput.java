@@ -0,0 +1,141 @@
+package com.coderank.executor.execute;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Relays program output to SSE clients. The pump thread only enqueues into a bounded per-client
+ * buffer; a small shared pool does the network writes. When a client falls behind, chunks are
+ * dropped (and reported as a "dropped" event) instead of buffering without limit or stalling the run.
+ */
+@Component
+public class LiveOutput {
+    private final ExecProperties props;
+    private final ExecutorService senders;
+    private final Counter droppedChunks;
+
+    public LiveOutput(ExecProperties props, MeterRegistry registry) {
+        this.props = props;
+        AtomicInteger c = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(2, r -> {
+            Thread t = new Thread(r, "live-output-" + c.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.droppedChunks = Counter.builder("coderank.execute.stream.dropped")
+                .description("Output chunks dropped because a streaming client fell behind")
+                .register(registry);
+    }
+
+    public Relay open(SseEmitter emitter) {
+        Relay r = new Relay(emitter, props.getStreamBufferChunks());
+        emitter.onCompletion(r::close);
+        emitter.onTimeout(r::close);
+        emitter.onError(e -> r.close());
+        return r;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+
+    private record Event(String name, Object data) {}
+
+    public final class Relay implements OutputListener {
+        private final SseEmitter emitter;
+        private final LinkedBlockingDeque<Event> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicLong dropped = new AtomicLong();
+        private volatile boolean started;
+        private volatile boolean closed;
+        private volatile Event first;
+        private volatile Event last;
+
+        private Relay(SseEmitter emitter, int capacity) {
+            this.emitter = emitter;
+            this.buffer = new LinkedBlockingDeque<>(capacity);
+        }
+
+        @Override
+        public void onOutput(String stream, String chunk) {
+            if (closed) return;
+            if (!buffer.offerLast(new Event(stream, chunk))) {
+                dropped.addAndGet(chunk.length());
+                droppedChunks.increment();
+                return;
+            }
+            if (started) schedule();
+        }
+
+        /** Sends the first event; output produced before this call is held back until then. */
+        public void start(String name, Object data) {
+            first = new Event(name, data); // held apart from the buffer, so a full buffer cannot drop it
+            started = true;
+            schedule();
+        }
+
+        /** Sends the final event after everything buffered, then completes the stream. */
+        public void finish(String name, Object data) {
+            last = new Event(name, data);
+            started = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (closed || !draining.compareAndSet(false, true)) return;
+            senders.execute(this::drain);
+        }
+
+        private void drain() {
+            try {
+                Event e = first;
+                if (!closed && e != null) {
+                    first = null;
+                    emitter.send(SseEmitter.event().name(e.name()).data(e.data()));
+                }
+                while (!closed && (e = buffer.pollFirst()) != null) {
+                    reportDropped();
+                    emitter.send(SseEmitter.event().name(e.name()).data(e.data()));
+                }
+                Event fin = last;
+                if (!closed && fin != null && buffer.isEmpty()) {
+                    reportDropped();
+                    closed = true;
+                    emitter.send(SseEmitter.event().name(fin.name()).data(fin.data()));
+                    emitter.complete();
+                    return;
+                }
+            } catch (IOException | IllegalStateException e) {
+                close(); // client went away; the run itself carries on and is still persisted
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // output or the final event may have arrived after the loop exited
+            if (first != null || !buffer.isEmpty() || last != null) schedule();
+        }
+
+        private void reportDropped() throws IOException {
+            long lost = dropped.getAndSet(0);
+            if (lost > 0) emitter.send(SseEmitter.event().name("dropped").data(Map.of("chars", lost)));
+        }
+
+        private void close() {
+            closed = true;
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.coderank.executor.execute;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Captures one output stream of a sandbox into pooled fixed-size chunks, up to a byte limit.
+ * Not thread-safe: a capture is owned by the thread pumping its stream.
+ */
+final class OutputCapture {
+    static final int CHUNK = 16 * 1024;
+    private static final int MAX_POOLED = 256; // chunks kept for reuse (4 MB)
+    private static final ConcurrentLinkedQueue<byte[]> POOL = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger pooled = new AtomicInteger();
+
+    private final long limit;
+    private final List<byte[]> chunks = new ArrayList<>();
+    private long size;
+    private volatile boolean overflowed;
+
+    // only used while forwarding to a live listener
+    private CharsetDecoder decoder;
+    private ByteBuffer pendingBytes;
+    private CharBuffer decoded;
+
+    OutputCapture(long limit) {
+        this.limit = limit;
+    }
+
+    boolean overflowed() { return overflowed; }
+
+    /**
+     * Reads at most {@code max} bytes with a single read call; returns the number of bytes kept, or
+     * -1 at end of stream. Bytes past the limit are discarded and mark the capture as overflowed.
+     */
+    int readFrom(InputStream in, int max, String stream, OutputListener listener) throws IOException {
+        if (overflowed) return 0;
+        byte[] cur = current();
+        int pos = (int) (size % CHUNK);
+        // ask for one byte past the limit so an exact fit is not mistaken for an overflow
+        int want = (int) Math.min(Math.min(CHUNK - pos, max), limit - size + 1);
+        int n = in.read(cur, pos, want);
+        if (n < 0) return -1;
+        if (size + n > limit) {
+            n = (int) (limit - size);
+            overflowed = true;
+        }
+        size += n;
+        if (listener != OutputListener.NONE && n > 0) forward(cur, pos, n, stream, listener);
+        return n;
+    }
+
+    /** Forwards any trailing partial character once the stream has ended. */
+    void end(String stream, OutputListener listener) {
+        if (listener != OutputListener.NONE) flush(stream, listener);
+    }
+
+    String text() {
+        return new String(bytes(), StandardCharsets.UTF_8);
+    }
+
+    byte[] bytes() {
+        byte[] out = new byte[(int) size];
+        int off = 0;
+        for (byte[] c : chunks) {
+            int n = (int) Math.min(CHUNK, size - off);
+            if (n <= 0) break;
+            System.arraycopy(c, 0, out, off, n);
+            off += n;
+        }
+        return out;
+    }
+
+    /** Returns the chunks to the shared pool; the capture must not be used afterwards. */
+    void release() {
+        for (byte[] c : chunks) {
+            if (pooled.incrementAndGet() <= MAX_POOLED) {
+                POOL.offer(c);
+            } else {
+                pooled.decrementAndGet();
+            }
+        }
+        chunks.clear();
+    }
+
+    private byte[] current() {
+        if (size < (long) chunks.size() * CHUNK) return chunks.get(chunks.size() - 1);
+        byte[] c = POOL.poll();
+        if (c != null) {
+            pooled.decrementAndGet();
+        } else {
+            c = new byte[CHUNK];
+        }
+        chunks.add(c);
+        return c;
+    }
+
+    // decodes incrementally so multi-byte characters split across reads are not mangled
+    private void forward(byte[] buf, int off, int len, String stream, OutputListener listener) {
+        if (decoder == null) {
+            decoder = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            pendingBytes = ByteBuffer.allocate(CHUNK + 8);
+            decoded = CharBuffer.allocate(CHUNK + 8);
+        }
+        pendingBytes.put(buf, off, len).flip();
+        decoder.decode(pendingBytes, decoded, false);
+        pendingBytes.compact();
+        emit(stream, listener);
+    }
+
+    private void flush(String stream, OutputListener listener) {
+        if (decoder == null) return;
+        pendingBytes.flip();
+        decoder.decode(pendingBytes, decoded, true);
+        decoder.flush(decoded);
+        emit(stream, listener);
+    }
+
+    private void emit(String stream, OutputListener listener) {
+        decoded.flip();
+        if (decoded.hasRemaining()) listener.onOutput(stream, decoded.toString());
+        decoded.clear();
+    }
+}
@@ -0,0 +1,10 @@
+package com.coderank.executor.execute;
+
+/** Receives program output while a sandbox is still running. Called from the stream pump thread. */
+@FunctionalInterface
+public interface OutputListener {
+    OutputListener NONE = (stream, chunk) -> {};
+
+    /** @param stream "stdout" or "stderr" */
+    void onOutput(String stream, String chunk);
+}
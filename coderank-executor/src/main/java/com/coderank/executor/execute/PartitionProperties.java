@@ -0,0 +1,21 @@
+package com.coderank.executor.execute;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.exec.partitions")
+public class PartitionProperties {
+    private int aheadMonths = 3;          // monthly submissions partitions created ahead of time
+    private int retentionMonths = 0;      // months kept besides the current one; 0 = keep everything
+    private String retention = "detach";  // drop | detach (left as a standalone table to archive); its blobs go once it is dropped
+    private int checkIntervalMinutes = 60;
+
+    public int getAheadMonths() { return aheadMonths; }
+    public void setAheadMonths(int aheadMonths) { this.aheadMonths = aheadMonths; }
+    public int getRetentionMonths() { return retentionMonths; }
+    public void setRetentionMonths(int retentionMonths) { this.retentionMonths = retentionMonths; }
+    public String getRetention() { return retention; }
+    public void setRetention(String retention) { this.retention = retention; }
+    public boolean isDrop() { return "drop".equalsIgnoreCase(retention); }
+    public int getCheckIntervalMinutes() { return checkIntervalMinutes; }
+    public void setCheckIntervalMinutes(int checkIntervalMinutes) { this.checkIntervalMinutes = checkIntervalMinutes; }
+}
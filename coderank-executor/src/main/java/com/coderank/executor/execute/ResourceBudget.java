@@ -0,0 +1,64 @@
+package com.coderank.executor.execute;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * The host's CPU and memory budget for sandboxes. Executions reserve their container's declared
+ * --cpus/--memory while they run; one that does not fit into what is left has to wait. A job
+ * larger than the whole budget still runs, but only when nothing else is running.
+ */
+@Component
+public class ResourceBudget {
+    private static final Logger log = LoggerFactory.getLogger(ResourceBudget.class);
+
+    private final boolean enabled;
+    private final double cpus;
+    private final long memoryBytes;
+    private double usedCpus;
+    private long usedMemory;
+    private int running;
+
+    public ResourceBudget(ResourceBudgetProperties props, MeterRegistry meters) {
+        this.enabled = props.isEnabled();
+        this.cpus = props.getCpus() > 0 ? props.getCpus() : Runtime.getRuntime().availableProcessors();
+        this.memoryBytes = props.getMemory().isBlank()
+                ? (long) (hostMemoryBytes() * props.getMemoryFraction())
+                : EngineApiDockerClient.parseBytes(props.getMemory());
+        if (enabled) log.info("Sandbox budget: {} CPUs, {} MB", cpus, memoryBytes / (1024 * 1024));
+        meters.gauge("coderank.exec.budget.cpus.used", this, ResourceBudget::usedCpus);
+        meters.gauge("coderank.exec.budget.memory.used", this, ResourceBudget::usedMemory);
+    }
+
+    public synchronized boolean fits(SandboxLimits l) {
+        if (!enabled || running == 0) return true;
+        return usedCpus + l.cpus() <= cpus + 1e-9 && usedMemory + l.memoryBytes() <= memoryBytes;
+    }
+
+    public synchronized void reserve(SandboxLimits l) {
+        usedCpus += l.cpus();
+        usedMemory += l.memoryBytes();
+        running++;
+    }
+
+    public synchronized void release(SandboxLimits l) {
+        usedCpus -= l.cpus();
+        usedMemory -= l.memoryBytes();
+        running--;
+    }
+
+    public synchronized double usedCpus() { return usedCpus; }
+
+    public synchronized double usedMemory() { return usedMemory; }
+
+    private static long hostMemoryBytes() {
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os) {
+            return os.getTotalMemorySize();
+        }
+        return Runtime.getRuntime().maxMemory();
+    }
+}
@@ -0,0 +1,23 @@
+package com.coderank.executor.execute;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.exec.budget")
+public class ResourceBudgetProperties {
+    private boolean enabled = true;
+    private double cpus = 0;            // 0 -> number of host cores
+    private String memory = "";         // e.g. 6g; blank -> memoryFraction of host RAM
+    private double memoryFraction = 0.75;
+    private int maxSkips = 8;           // starts that may pass over a job that does not fit before it is waited for
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public double getCpus() { return cpus; }
+    public void setCpus(double cpus) { this.cpus = cpus; }
+    public String getMemory() { return memory; }
+    public void setMemory(String memory) { this.memory = memory; }
+    public double getMemoryFraction() { return memoryFraction; }
+    public void setMemoryFraction(double memoryFraction) { this.memoryFraction = memoryFraction; }
+    public int getMaxSkips() { return maxSkips; }
+    public void setMaxSkips(int maxSkips) { this.maxSkips = maxSkips; }
+}
@@ -0,0 +1,112 @@
+package com.coderank.executor.execute;
+
+import com.coderank.executor.language.ExecLanguage;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Opt-in cache of execution results keyed by (language config, source, stdin), with single-flight
+ * coalescing: concurrent identical requests share one execution instead of each taking a permit.
+ * The key covers everything in the languages row a run depends on, sandbox limits included, so a
+ * change saved on any node stops hits on every node once its registry reloads.
+ */
+@Component
+public class ResultCache {
+    // TIMEOUT and INTERNAL_ERROR depend on host load, so they are never cached
+    private static final Set<ExecStatus> CACHEABLE = EnumSet.of(
+            ExecStatus.SUCCESS, ExecStatus.COMPILE_ERROR, ExecStatus.RUNTIME_ERROR);
+
+    private final ResultCacheProperties props;
+    private final MeterRegistry meters;
+    private final LinkedHashMap<String, Entry> entries;
+    private final ConcurrentHashMap<String, CompletableFuture<DockerRunner.Result>> inFlight = new ConcurrentHashMap<>();
+
+    private record Entry(String language, DockerRunner.Result result, long expiresAtNs) {}
+
+    public ResultCache(ResultCacheProperties props, MeterRegistry meters) {
+        this.props = props;
+        this.meters = meters;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > props.getMaxEntries();
+            }
+        };
+        meters.gauge("coderank.execute.cache.size", this, ResultCache::size);
+    }
+
+    public DockerRunner.Result getOrCompute(ExecLanguage lang, String source, String stdin,
+                                            Supplier<DockerRunner.Result> execution) {
+        if (!props.isEnabled()) return execution.get();
+
+        String key = ContentHash.of(lang.getCode(), lang.getImage(), lang.getFileName(),
+                lang.getCompileCmd(), lang.getRunCmd(), String.valueOf(lang.getCpus()), lang.getMemory(),
+                String.valueOf(lang.getTimeLimitSeconds()), source, stdin);
+        DockerRunner.Result cached = lookup(key);
+        if (cached != null) {
+            count("hit");
+            return cached;
+        }
+
+        CompletableFuture<DockerRunner.Result> mine = new CompletableFuture<>();
+        CompletableFuture<DockerRunner.Result> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            count("coalesced");
+            try {
+                return leader.join();
+            } catch (CompletionException e) {
+                // the leader was rejected or failed (e.g. its own in-flight limit): run on our own
+                return execution.get();
+            }
+        }
+
+        count("miss");
+        try {
+            DockerRunner.Result r = execution.get();
+            if (CACHEABLE.contains(r.status())) store(key, lang.getCode(), r);
+            mine.complete(r);
+            return r;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /** Drops every cached result for a language, freeing the entries a config change made unreachable. */
+    public synchronized void invalidateLanguage(String languageCode) {
+        entries.values().removeIf(e -> e.language().equals(languageCode));
+    }
+
+    public synchronized int size() { return entries.size(); }
+
+    private synchronized DockerRunner.Result lookup(String key) {
+        Entry e = entries.get(key);
+        if (e == null) return null;
+        if (System.nanoTime() - e.expiresAtNs() > 0) {
+            entries.remove(key);
+            return null;
+        }
+        return e.result();
+    }
+
+    private synchronized void store(String key, String language, DockerRunner.Result r) {
+        long expires = System.nanoTime() + TimeUnit.SECONDS.toNanos(props.getTtlSeconds());
+        entries.put(key, new Entry(language, r, expires));
+    }
+
+    private void count(String result) {
+        meters.counter("coderank.execute.cache", "result", result).increment();
+    }
+}
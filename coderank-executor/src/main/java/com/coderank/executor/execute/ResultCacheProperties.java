@@ -0,0 +1,17 @@
+package com.coderank.executor.execute;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.exec.result-cache")
+public class ResultCacheProperties {
+    private boolean enabled = false;   // opt-in: only safe for deterministic programs
+    private int maxEntries = 10000;
+    private int ttlSeconds = 300;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public int getMaxEntries() { return maxEntries; }
+    public void setMaxEntries(int maxEntries) { this.maxEntries = maxEntries; }
+    public int getTtlSeconds() { return ttlSeconds; }
+    public void setTtlSeconds(int ttlSeconds) { this.ttlSeconds = ttlSeconds; }
+}
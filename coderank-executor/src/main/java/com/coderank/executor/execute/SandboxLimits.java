@@ -0,0 +1,18 @@
+package com.coderank.executor.execute;
+
+import com.coderank.executor.language.ExecLanguage;
+
+/** CPU and memory limits of one sandbox container; memory in docker notation (e.g. 256m). */
+public record SandboxLimits(double cpus, String memory) {
+
+    /** The language's resource profile, falling back to the global app.exec limits. */
+    public static SandboxLimits of(ExecLanguage lang, ExecProperties props) {
+        return new SandboxLimits(
+                lang.getCpus() != null ? lang.getCpus() : props.getCpus(),
+                lang.getMemory() != null ? lang.getMemory() : props.getMemory());
+    }
+
+    public long memoryBytes() {
+        return EngineApiDockerClient.parseBytes(memory);
+    }
+}
@@ -0,0 +1,29 @@
+package com.coderank.executor.execute;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.SelectableChannel;
+import java.util.concurrent.TimeUnit;
+
+/** A command running inside a sandbox container, as seen by {@link DockerRunner}. */
+public interface SandboxProcess {
+    OutputStream stdin();
+    InputStream stdout();
+    InputStream stderr();
+    boolean waitFor(long timeout, TimeUnit unit) throws InterruptedException;
+    int exitValue();
+    void destroy();
+
+    /**
+     * Channel the shared stream pump can select on for output, or null when stdout/stderr can only
+     * be polled with {@code available()}.
+     */
+    default SelectableChannel outputChannel() { return null; }
+
+    /**
+     * Called by the pump when {@link #outputChannel()} is readable: moves ready bytes into
+     * stdout/stderr without blocking. Returns false once the output has ended.
+     */
+    default boolean readReady() throws IOException { return false; }
+}
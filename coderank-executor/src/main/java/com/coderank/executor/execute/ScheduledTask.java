@@ -0,0 +1,27 @@
+package com.coderank.executor.execute;
+
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/** An execution waiting in the exec queue, tagged with the tenant it is scheduled for. */
+final class ScheduledTask implements Runnable {
+    final String tenant; // "u:<id>" or "u:anon"
+    final int weight;
+    private final Timer queueWait;
+    private final Runnable body;
+    private final long enqueuedNs = System.nanoTime();
+
+    ScheduledTask(String tenant, int weight, Timer queueWait, Runnable body) {
+        this.tenant = tenant;
+        this.weight = Math.max(1, weight);
+        this.queueWait = queueWait;
+        this.body = body;
+    }
+
+    @Override
+    public void run() {
+        if (queueWait != null) queueWait.record(System.nanoTime() - enqueuedNs, TimeUnit.NANOSECONDS);
+        body.run();
+    }
+}
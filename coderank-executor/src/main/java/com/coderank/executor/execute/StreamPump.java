@@ -0,0 +1,205 @@
+package com.coderank.executor.execute;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains stdout/stderr of every running sandbox on one I/O thread. Engine API streams are
+ * registered with a selector; CLI process pipes cannot be selected, so they are polled with
+ * {@code available()} on a short interval. A session ends at end of output, when a stream goes
+ * over its cap, or at its deadline; in the last two cases the sandbox is killed off the I/O thread.
+ */
+@Component
+public class StreamPump {
+    private static final Logger log = LoggerFactory.getLogger(StreamPump.class);
+    private static final long POLL_MS = 5;           // CLI pipes without a selectable channel
+    private static final long IDLE_SELECT_MS = 50;   // deadline check granularity when only selecting
+    private static final int MAX_READ_PER_PASS = 64 * 1024;
+
+    public enum End { EOF, OVERFLOW, DEADLINE }
+
+    private final Selector selector;
+    private final ConcurrentLinkedQueue<Session> incoming = new ConcurrentLinkedQueue<>();
+    private final List<Session> active = new ArrayList<>();   // only touched by the I/O thread
+    private final ExecutorService killer;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    public StreamPump() {
+        try {
+            this.selector = Selector.open();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open selector", e);
+        }
+        this.killer = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "sandbox-kill");
+            t.setDaemon(true);
+            return t;
+        });
+        this.thread = new Thread(this::loop, "sandbox-io");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /** Output pumping for one sandbox process. Captures must not be touched until {@link #await} returns true. */
+    public final class Session {
+        private final SandboxProcess process;
+        private final OutputCapture out;
+        private final OutputCapture err;
+        private final OutputListener listener;
+        private final Runnable kill;
+        private final long deadlineNs;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private boolean outEnded;
+        private boolean errEnded;
+        private SelectionKey key;
+        private volatile End end;
+
+        private Session(SandboxProcess process, OutputCapture out, OutputCapture err,
+                        OutputListener listener, Runnable kill, long deadlineNs) {
+            this.process = process;
+            this.out = out;
+            this.err = err;
+            this.listener = listener;
+            this.kill = kill;
+            this.deadlineNs = deadlineNs;
+        }
+
+        public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+            return done.await(timeout, unit);
+        }
+
+        /** How the session ended; null while it is still running. */
+        public End end() { return end; }
+    }
+
+    public Session start(SandboxProcess p, OutputCapture out, OutputCapture err, OutputListener listener,
+                         Runnable kill, long timeout, TimeUnit unit) {
+        Session s = new Session(p, out, err, listener, kill, System.nanoTime() + unit.toNanos(timeout));
+        incoming.add(s);
+        selector.wakeup();
+        return s;
+    }
+
+    private void loop() {
+        while (running) {
+            try {
+                register();
+                selector.select(hasPolled() ? POLL_MS : IDLE_SELECT_MS);
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    Session s = (Session) it.next().attachment();
+                    it.remove();
+                    if (s.end == null) service(s, !s.process.readReady());
+                }
+                long now = System.nanoTime();
+                for (Iterator<Session> a = active.iterator(); a.hasNext(); ) {
+                    Session s = a.next();
+                    if (s.end == null && s.key == null) service(s, s.process.waitFor(0, TimeUnit.MILLISECONDS));
+                    if (s.end == null && now - s.deadlineNs > 0) finish(s, End.DEADLINE);
+                    if (s.end != null) a.remove();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.error("Stream pump iteration failed", e);
+            }
+        }
+    }
+
+    private void register() {
+        Session s;
+        while ((s = incoming.poll()) != null) {
+            active.add(s);
+            SelectableChannel ch = s.process.outputChannel();
+            if (ch == null) continue;
+            try {
+                s.key = ch.register(selector, SelectionKey.OP_READ, s);
+            } catch (ClosedChannelException e) {
+                s.outEnded = s.errEnded = true;
+                finish(s, End.EOF);
+            }
+        }
+    }
+
+    private boolean hasPolled() {
+        for (Session s : active) {
+            if (s.key == null) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Moves ready bytes into the captures. Once the source has ended (channel EOF, or the CLI
+     * process has exited and its pipes were drained by the JDK) reads run to end of stream.
+     */
+    private void service(Session s, boolean sourceEnded) {
+        try {
+            if (!s.outEnded) s.outEnded = pump(s.out, s.process.stdout(), "stdout", s, sourceEnded);
+            if (!s.errEnded) s.errEnded = pump(s.err, s.process.stderr(), "stderr", s, sourceEnded);
+        } catch (IOException e) {
+            s.outEnded = s.errEnded = true;
+        }
+        if (s.out.overflowed() || s.err.overflowed()) {
+            finish(s, End.OVERFLOW);
+        } else if (s.outEnded && s.errEnded) {
+            finish(s, End.EOF);
+        }
+    }
+
+    /** Returns true when the stream has ended. */
+    private static boolean pump(OutputCapture c, InputStream in, String name, Session s, boolean toEnd) throws IOException {
+        int budget = MAX_READ_PER_PASS;
+        while (budget > 0 && !c.overflowed()) {
+            int avail = in.available();
+            if (avail <= 0 && !toEnd) return false;
+            int n = c.readFrom(in, avail > 0 ? Math.min(avail, budget) : budget, name, s.listener);
+            if (n < 0) {
+                c.end(name, s.listener);
+                return true;
+            }
+            budget -= Math.max(n, 1);
+        }
+        return false;
+    }
+
+    private void finish(Session s, End end) {
+        if (s.key != null) s.key.cancel();
+        s.end = end;
+        if (end != End.EOF) killer.execute(s.kill);
+        s.done.countDown();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join(1000);
+            selector.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ignored) {
+        }
+        killer.shutdownNow();
+    }
+}
@@ -0,0 +1,128 @@
+package com.coderank.executor.execute;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maintains the monthly partitions of submissions (submissions_pYYYY_MM, UTC months): creates
+ * them aheadMonths ahead and, with retentionMonths set, drops or detaches those that have aged
+ * out. Either is a catalog change rather than a DELETE of the rows. One node at a time does the
+ * work, under an advisory lock.
+ * <p>
+ * Blobs go with the months that used them: each content_blobs row carries the latest month it
+ * was written for, and those last used before every remaining partition (attached, or detached
+ * and not yet archived) are deleted in the same pass. A month's grace covers rows whose
+ * created_at and blob stamp fall either side of a month boundary.
+ */
+@Component
+public class SubmissionPartitions {
+    private static final Logger log = LoggerFactory.getLogger(SubmissionPartitions.class);
+    private static final long LOCK_KEY = 0x636f646572616e6bL; // "coderank"
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final String PREFIX = "submissions_p";
+
+    private final PartitionProperties props;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final ScheduledExecutorService scheduler;
+
+    public SubmissionPartitions(PartitionProperties props, JdbcTemplate jdbc, TransactionTemplate tx) {
+        this.props = props;
+        this.jdbc = jdbc;
+        this.tx = tx;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "submission-partitions");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::maintain, 0, props.getCheckIntervalMinutes(), TimeUnit.MINUTES);
+    }
+
+    void maintain() {
+        try {
+            tx.executeWithoutResult(status -> {
+                Boolean locked = jdbc.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, LOCK_KEY);
+                if (!Boolean.TRUE.equals(locked)) return; // another node is at it
+                LocalDate month = LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1);
+                for (int i = 0; i <= props.getAheadMonths(); i++) create(month.plusMonths(i));
+                if (props.getRetentionMonths() > 0) {
+                    LocalDate oldestKept = month.minusMonths(props.getRetentionMonths());
+                    retire(oldestKept);
+                    collectBlobs(oldestKept);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Submission partition maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    private void create(LocalDate month) {
+        jdbc.execute("CREATE TABLE IF NOT EXISTS " + PREFIX + month.format(SUFFIX)
+                + " PARTITION OF submissions FOR VALUES FROM ('" + month + "') TO ('" + month.plusMonths(1) + "')");
+    }
+
+    // every partition of a month before the oldest one kept
+    private void retire(LocalDate oldestKept) {
+        List<String> partitions = jdbc.queryForList("""
+                SELECT c.relname FROM pg_inherits i
+                  JOIN pg_class c ON c.oid = i.inhrelid
+                 WHERE i.inhparent = 'submissions'::regclass
+                """, String.class);
+        for (String name : partitions) {
+            LocalDate month = monthOf(name);
+            if (month == null || !month.isBefore(oldestKept)) continue;
+            if (props.isDrop()) {
+                jdbc.execute("DROP TABLE " + name);
+                log.info("Dropped submissions partition {}", name);
+            } else {
+                jdbc.execute("ALTER TABLE submissions DETACH PARTITION " + name);
+                log.info("Detached submissions partition {}; it can now be archived and dropped", name);
+            }
+        }
+    }
+
+    // blobs no remaining partition can reference: detached ones keep theirs until they are dropped
+    private void collectBlobs(LocalDate oldestKept) {
+        List<String> tables = jdbc.queryForList(
+                "SELECT relname FROM pg_class WHERE relkind = 'r' AND relname LIKE 'submissions\\_p%'", String.class);
+        LocalDate oldest = oldestKept;
+        for (String name : tables) {
+            LocalDate month = monthOf(name);
+            if (month != null && month.isBefore(oldest)) oldest = month;
+        }
+        int deleted = jdbc.update("DELETE FROM content_blobs WHERE last_used < ?", oldest.minusMonths(1));
+        if (deleted > 0) log.info("Deleted {} content blobs last used before {}", deleted, oldest.minusMonths(1));
+    }
+
+    private static LocalDate monthOf(String partition) {
+        if (!partition.startsWith(PREFIX)) return null;
+        try {
+            return LocalDate.parse(partition.substring(PREFIX.length()) + "_01", DateTimeFormatter.ofPattern("yyyy_MM_dd"));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,253 @@
+package com.coderank.executor.execute;
+
+import com.coderank.executor.submit.BlobStore;
+import com.coderank.executor.submit.Submission;
+import com.coderank.executor.submit.SubmissionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind for finished synchronous executions: the request thread only queues the row, and
+ * a writer thread inserts whatever has accumulated as one JDBC batch in one transaction. When
+ * the buffer is full the row is saved on the request thread (overflow=sync) or dropped
+ * (overflow=drop). While the database is unreachable the batch is kept and retried with
+ * backoff, so an outage fills the buffer rather than losing rows; only rows the database
+ * rejects are dropped. On shutdown the buffer is flushed before the datasource closes.
+ */
+@Component
+public class SubmissionWriter {
+    private static final Logger log = LoggerFactory.getLogger(SubmissionWriter.class);
+
+    private static final String INSERT = """
+            INSERT INTO submissions (id, user_id, language_code, source_hash, stdin_hash, stdout_hash, stderr_hash, status,
+                                     exec_time_ms, memory_kb, compile_time_ms, run_time_ms, cpu_time_ms, created_at,
+                                     compile_memory_kb)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT DO NOTHING
+            """;
+
+    private final SubmissionWriterProperties props;
+    private final SubmissionRepository submissions;
+    private final BlobStore blobs;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final BlockingQueue<Pending> buffer;
+    private final Counter overflowed;
+    private final Counter dropped;   // buffer full with overflow=drop
+    private final Counter rejected;  // the database refused the row
+    private final Counter unwritten; // the database was still unavailable at shutdown
+    private final Counter retries;
+    private final Timer lag;
+    private final DistributionSummary batches;
+    private final Thread writer;
+    private volatile boolean stopped;
+    private volatile boolean failing; // the last write found the database unavailable
+    private volatile long giveUpAtNs;   // set on shutdown: retries stop here
+
+    // the id is fixed at queueing time so a retried batch cannot insert a row twice
+    private record Pending(UUID id, Submission submission, long enqueuedNs) {}
+
+    public SubmissionWriter(SubmissionWriterProperties props,
+                            SubmissionRepository submissions,
+                            BlobStore blobs,
+                            JdbcTemplate jdbc,
+                            TransactionTemplate tx,
+                            MeterRegistry meters) {
+        this.props = props;
+        this.submissions = submissions;
+        this.blobs = blobs;
+        this.jdbc = jdbc;
+        this.tx = tx;
+        this.buffer = new ArrayBlockingQueue<>(Math.max(1, props.getCapacity()));
+        this.overflowed = meters.counter("coderank.submissions.writer.overflow");
+        this.dropped = meters.counter("coderank.submissions.writer.dropped", "reason", "overflow");
+        this.rejected = meters.counter("coderank.submissions.writer.dropped", "reason", "rejected");
+        this.unwritten = meters.counter("coderank.submissions.writer.dropped", "reason", "unavailable");
+        this.retries = meters.counter("coderank.submissions.writer.retries");
+        this.lag = meters.timer("coderank.submissions.writer.lag");
+        this.batches = DistributionSummary.builder("coderank.submissions.writer.batch").register(meters);
+        meters.gauge("coderank.submissions.writer.buffered", buffer, BlockingQueue::size);
+        meters.gauge("coderank.submissions.writer.oldest.seconds", this, SubmissionWriter::oldestSeconds);
+        meters.gauge("coderank.submissions.writer.failing", this, w -> w.failing ? 1 : 0);
+        this.writer = new Thread(this::writeLoop, "submission-writer");
+        writer.setDaemon(true);
+        if (props.isEnabled()) writer.start();
+    }
+
+    /** Queues the submission for insertion. The row is not visible until its batch commits. */
+    public void write(Submission s) {
+        if (!props.isEnabled() || stopped) {
+            saveNow(s);
+            return;
+        }
+        if (s.getCreatedAt() == null) s.setCreatedAt(Instant.now());
+        if (buffer.offer(new Pending(UUID.randomUUID(), s, System.nanoTime()))) return;
+        if (props.isDropOnOverflow()) {
+            dropped.increment();
+            log.warn("Submission buffer full, dropped a {} submission", s.getLanguageCode());
+            return;
+        }
+        overflowed.increment();
+        saveNow(s);
+    }
+
+    private void saveNow(Submission s) {
+        tx.executeWithoutResult(status -> {
+            blobs.store(s);
+            submissions.save(s);
+        });
+    }
+
+    private double oldestSeconds() {
+        Pending p = buffer.peek();
+        return p == null ? 0 : (System.nanoTime() - p.enqueuedNs()) / 1e9;
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(props.getBatchSize());
+        while (!stopped || !buffer.isEmpty()) {
+            try {
+                Pending first = buffer.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                buffer.drainTo(batch, props.getBatchSize() - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Submission writer failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Pending> batch) throws InterruptedException {
+        batches.record(batch.size());
+        List<Pending> rest = batch;
+        long backoffMs = props.getRetryBackoffMs();
+        while (!rest.isEmpty()) {
+            try {
+                List<Pending> rows = rest;
+                tx.executeWithoutResult(status -> insert(rows));
+                rest = List.of();
+            } catch (RuntimeException e) {
+                if (unavailable(e)) {
+                    // nothing is wrong with the rows: hold them while new ones fill the buffer
+                    if (!failing) log.error("Database unavailable, retrying {} submissions: {}", rest.size(), e.getMessage());
+                    failing = true;
+                    if (stopped && System.nanoTime() - giveUpAtNs > 0) {
+                        unwritten.increment(rest.size());
+                        log.error("Dropped {} submissions: database unavailable at shutdown", rest.size());
+                        return;
+                    }
+                    retries.increment();
+                    Thread.sleep(backoffMs);
+                    backoffMs = Math.min(backoffMs * 2, props.getRetryMaxBackoffMs());
+                    continue;
+                }
+                // one bad row fails the whole batch: retry one by one so only that row is lost
+                log.warn("Batch insert of {} submissions failed, retrying one by one: {}", rest.size(), e.getMessage());
+                rest = insertEach(rest);
+            }
+        }
+        if (failing) {
+            failing = false;
+            log.info("Database available again, submission writes resumed");
+        }
+        long now = System.nanoTime();
+        for (Pending p : batch) lag.record(now - p.enqueuedNs(), TimeUnit.NANOSECONDS);
+    }
+
+    // the rows left when the database became unavailable part way; rejected rows are dropped
+    private List<Pending> insertEach(List<Pending> rows) {
+        for (int i = 0; i < rows.size(); i++) {
+            Pending p = rows.get(i);
+            try {
+                tx.executeWithoutResult(status -> insert(List.of(p)));
+            } catch (RuntimeException e) {
+                if (unavailable(e)) return rows.subList(i, rows.size());
+                rejected.increment();
+                log.error("Dropped submission {}", p.id(), e);
+            }
+        }
+        return List.of();
+    }
+
+    // connection, pool or transaction-start failures, as opposed to a row the database refuses
+    static boolean unavailable(Throwable e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    // blobs first: the rows reference them
+    private void insert(List<Pending> rows) {
+        blobs.store(rows.stream().map(Pending::submission).toList());
+        jdbc.batchUpdate(INSERT, rows, rows.size(), SubmissionWriter::bind);
+    }
+
+    private static void bind(PreparedStatement ps, Pending p) throws SQLException {
+        Submission s = p.submission();
+        ps.setObject(1, p.id());
+        ps.setObject(2, s.getUserId());
+        ps.setString(3, s.getLanguageCode());
+        ps.setString(4, s.getSourceHash());
+        ps.setString(5, s.getStdinHash());
+        ps.setString(6, s.getStdoutHash());
+        ps.setString(7, s.getStderrHash());
+        ps.setString(8, s.getStatus());
+        ps.setObject(9, s.getExecTimeMs(), Types.INTEGER);
+        ps.setObject(10, s.getMemoryKb(), Types.INTEGER);
+        ps.setObject(11, s.getCompileTimeMs(), Types.INTEGER);
+        ps.setObject(12, s.getRunTimeMs(), Types.INTEGER);
+        ps.setObject(13, s.getCpuTimeMs(), Types.INTEGER);
+        // TIMESTAMP without zone holds UTC, as written by Hibernate (hibernate.jdbc.time_zone)
+        ps.setObject(14, LocalDateTime.ofInstant(s.getCreatedAt(), ZoneOffset.UTC));
+        ps.setObject(15, s.getCompileMemoryKb(), Types.INTEGER);
+    }
+
+    /** Stops taking rows and waits for the buffer to be written. */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        giveUpAtNs = System.nanoTime() + TimeUnit.SECONDS.toNanos(props.getShutdownTimeoutSeconds());
+        stopped = true;
+        if (!writer.isAlive()) return;
+        writer.join(TimeUnit.SECONDS.toMillis(props.getShutdownTimeoutSeconds()));
+        if (writer.isAlive()) {
+            log.warn("{} submissions not written before shutdown", buffer.size());
+            return;
+        }
+        // rows queued by requests that raced with the stop
+        List<Pending> rest = new ArrayList<>();
+        buffer.drainTo(rest);
+        if (!rest.isEmpty()) flush(rest);
+    }
+}
@@ -0,0 +1,30 @@
+package com.coderank.executor.execute;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.exec.writer")
+public class SubmissionWriterProperties {
+    private boolean enabled = true;        // false: every submission is saved on the request thread
+    private int capacity = 5000;           // submissions buffered before the overflow policy applies
+    private int batchSize = 100;           // rows per INSERT batch
+    private String overflow = "sync";      // sync (saved on the request thread) | drop (counted and logged)
+    private int retryBackoffMs = 500;      // database unavailable: wait before retrying the batch, doubled each time
+    private int retryMaxBackoffMs = 30_000; // longest such wait
+    private int shutdownTimeoutSeconds = 10;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public int getCapacity() { return capacity; }
+    public void setCapacity(int capacity) { this.capacity = capacity; }
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+    public String getOverflow() { return overflow; }
+    public void setOverflow(String overflow) { this.overflow = overflow; }
+    public boolean isDropOnOverflow() { return "drop".equalsIgnoreCase(overflow); }
+    public int getRetryBackoffMs() { return retryBackoffMs; }
+    public void setRetryBackoffMs(int retryBackoffMs) { this.retryBackoffMs = retryBackoffMs; }
+    public int getRetryMaxBackoffMs() { return retryMaxBackoffMs; }
+    public void setRetryMaxBackoffMs(int retryMaxBackoffMs) { this.retryMaxBackoffMs = retryMaxBackoffMs; }
+    public int getShutdownTimeoutSeconds() { return shutdownTimeoutSeconds; }
+    public void setShutdownTimeoutSeconds(int shutdownTimeoutSeconds) { this.shutdownTimeoutSeconds = shutdownTimeoutSeconds; }
+}
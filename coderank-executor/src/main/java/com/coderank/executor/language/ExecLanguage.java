@@ -40,6 +40,26 @@ public class ExecLanguage {
     private boolean enabled = true;
 
 
+    // Resource profile; null means the global app.exec / app.exec.concurrent setting
+    private Double cpus;
+
+
+    @Column(length = 16)
+    private String memory; // docker notation, e.g. 512m
+
+
+    @Column(name = "time_limit_seconds")
+    private Integer timeLimitSeconds; // per run, excluding compilation
+
+
+    @Column(name = "max_concurrent")
+    private Integer maxConcurrent;
+
+
+    @Column(name = "queue_capacity")
+    private Integer queueCapacity;
+
+
     // Getters/setters
     public String getCode() { return code; }
     public void setCode(String code) { this.code = code; }
@@ -57,4 +77,14 @@ public class ExecLanguage {
     public void setVersion(String version) { this.version = version; }
     public boolean isEnabled() { return enabled; }
     public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public Double getCpus() { return cpus; }
+    public void setCpus(Double cpus) { this.cpus = cpus; }
+    public String getMemory() { return memory; }
+    public void setMemory(String memory) { this.memory = memory; }
+    public Integer getTimeLimitSeconds() { return timeLimitSeconds; }
+    public void setTimeLimitSeconds(Integer timeLimitSeconds) { this.timeLimitSeconds = timeLimitSeconds; }
+    public Integer getMaxConcurrent() { return maxConcurrent; }
+    public void setMaxConcurrent(Integer maxConcurrent) { this.maxConcurrent = maxConcurrent; }
+    public Integer getQueueCapacity() { return queueCapacity; }
+    public void setQueueCapacity(Integer queueCapacity) { this.queueCapacity = queueCapacity; }
 }
@@ -1,10 +1,12 @@
 package com.coderank.executor.language;
 
 
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 
 import java.util.List;
@@ -18,13 +20,16 @@ public class LanguageController {
     public LanguageController(LanguageService service) { this.service = service; }
 
 
+    // revalidated by ETag, so clients get a 304 until an admin changes a language
     @GetMapping
-    public ResponseEntity<List<Map<String, String>>> list() {
-        var out = service.listEnabled().stream().map(l -> Map.of(
+    public ResponseEntity<List<Map<String, String>>> list(WebRequest request) {
+        LanguageRegistry.Snapshot snapshot = service.snapshot();
+        if (request.checkNotModified(snapshot.etag())) return null;
+        var out = snapshot.enabled().stream().map(l -> Map.of(
                 "code", l.getCode(),
                 "name", l.getDisplayName(),
                 "version", l.getVersion()
         )).toList();
-        return ResponseEntity.ok(out);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(snapshot.etag()).body(out);
     }
 }
@@ -0,0 +1,155 @@
+package com.coderank.executor.language;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The languages table held in memory, so resolving a language costs no query. Each load builds
+ * a new {@link Snapshot} that replaces the old one in a single write; the languages in it are
+ * shared and must not be modified. Reloaded when an admin saves a change (which also sends a
+ * NOTIFY so other nodes reload), on that NOTIFY, and every refreshSeconds.
+ */
+@Component
+public class LanguageRegistry {
+    private static final Logger log = LoggerFactory.getLogger(LanguageRegistry.class);
+    private static final String CHANNEL = "coderank_languages";
+
+    private final ExecLanguageRepository repo;
+    private final JdbcTemplate jdbc;
+    private final DataSourceProperties dataSource;
+    private final LanguageRegistryProperties props;
+    private final Thread listener;
+    private volatile Snapshot current;
+    private volatile Connection listening;
+    private volatile boolean stopped;
+
+    /** All languages by code, the enabled ones in display order, and an ETag for that list. */
+    public record Snapshot(Map<String, ExecLanguage> byCode, List<ExecLanguage> enabled, String etag) {}
+
+    public LanguageRegistry(ExecLanguageRepository repo,
+                            JdbcTemplate jdbc,
+                            DataSourceProperties dataSource,
+                            LanguageRegistryProperties props) {
+        this.repo = repo;
+        this.jdbc = jdbc;
+        this.dataSource = dataSource;
+        this.props = props;
+        this.listener = new Thread(this::listen, "language-listener");
+        listener.setDaemon(true);
+    }
+
+    @PostConstruct
+    void start() {
+        reload();
+        if (props.isListen()) listener.start();
+    }
+
+    public Snapshot snapshot() {
+        return current;
+    }
+
+    public Optional<ExecLanguage> find(String code) {
+        return Optional.ofNullable(current.byCode().get(code));
+    }
+
+    public List<ExecLanguage> enabled() {
+        return current.enabled();
+    }
+
+    /** Call after saving a language: reloads here and tells the other nodes to. */
+    public void changed() {
+        reload();
+        try {
+            jdbc.execute("NOTIFY " + CHANNEL);
+        } catch (RuntimeException e) {
+            log.warn("Could not notify other nodes of a language change: {}", e.getMessage());
+        }
+    }
+
+    synchronized void reload() {
+        List<ExecLanguage> all = repo.findAll();
+        Map<String, ExecLanguage> byCode = all.stream()
+                .collect(Collectors.toUnmodifiableMap(ExecLanguage::getCode, Function.identity()));
+        List<ExecLanguage> enabled = all.stream()
+                .filter(ExecLanguage::isEnabled)
+                .sorted(Comparator.comparing(ExecLanguage::getDisplayName))
+                .toList();
+        current = new Snapshot(byCode, enabled, etag(enabled));
+    }
+
+    // over what GET /api/languages shows
+    private static String etag(List<ExecLanguage> enabled) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            for (ExecLanguage l : enabled) {
+                md.update((l.getCode() + "\u0000" + l.getDisplayName() + "\u0000" + l.getVersion() + "\n")
+                        .getBytes(StandardCharsets.UTF_8));
+            }
+            return "\"" + HexFormat.of().formatHex(md.digest(), 0, 12) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // a dedicated connection outside the pool, since it stays open for as long as we listen
+    private void listen() {
+        while (!stopped) {
+            try (Connection c = DriverManager.getConnection(dataSource.determineUrl(),
+                    dataSource.determineUsername(), dataSource.determinePassword());
+                 Statement st = c.createStatement()) {
+                listening = c;
+                st.execute("LISTEN " + CHANNEL);
+                reload(); // changes made while not listening
+                PGConnection pg = c.unwrap(PGConnection.class);
+                while (!stopped) {
+                    // returns on a notification or after the timeout; reload either way
+                    pg.getNotifications((int) TimeUnit.SECONDS.toMillis(props.getRefreshSeconds()));
+                    reload();
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (stopped) return;
+                log.warn("Language change listener failed, reconnecting: {}", e.getMessage());
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopped = true;
+        listener.interrupt();
+        Connection c = listening;
+        if (c == null) return;
+        try {
+            c.close(); // unblocks getNotifications
+        } catch (SQLException ignored) {
+            // closing anyway
+        }
+    }
+}
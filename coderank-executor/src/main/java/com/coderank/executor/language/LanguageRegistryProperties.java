@@ -0,0 +1,14 @@
+package com.coderank.executor.language;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.languages")
+public class LanguageRegistryProperties {
+    private boolean listen = true;      // LISTEN for changes saved on other nodes (one extra connection)
+    private int refreshSeconds = 300;   // full reload regardless, in case a notification was missed
+
+    public boolean isListen() { return listen; }
+    public void setListen(boolean listen) { this.listen = listen; }
+    public int getRefreshSeconds() { return refreshSeconds; }
+    public void setRefreshSeconds(int refreshSeconds) { this.refreshSeconds = refreshSeconds; }
+}
@@ -7,9 +7,12 @@ import java.util.List;
 
 @Service
 public class LanguageService {
-    private final ExecLanguageRepository repo;
-    public LanguageService(ExecLanguageRepository repo) { this.repo = repo; }
+    private final LanguageRegistry registry;
+    public LanguageService(LanguageRegistry registry) { this.registry = registry; }
 
 
-    public List<ExecLanguage> listEnabled() { return repo.findAllByEnabledTrueOrderByDisplayNameAsc(); }
+    public List<ExecLanguage> listEnabled() { return registry.enabled(); }
+
+
+    public LanguageRegistry.Snapshot snapshot() { return registry.snapshot(); }
 }
\ No newline at end of file
@@ -0,0 +1,168 @@
+package com.coderank.executor.quota;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Rate limits and in-flight caps that hold across all nodes, kept in a QuotaStore. Rate tokens are
+ * leased: a node takes leaseSize tokens at once and spends them locally, so the store sees one
+ * call per lease instead of one per request. When the store fails or is slower than
+ * storeTimeoutMs, every verdict is LOCAL for fallbackSeconds and callers apply their local limits.
+ */
+@Component
+public class ClusterQuotas {
+    private static final Logger log = LoggerFactory.getLogger(ClusterQuotas.class);
+
+    public enum Verdict { ALLOWED, DENIED, LOCAL }
+
+    private final QuotaProperties props;
+    private final QuotaStore store;
+    private final String node;
+    private final ConcurrentHashMap<String, Lease> leases = new ConcurrentHashMap<>();
+    // slots held in the store by this node, so renewals can restate them
+    private final ConcurrentHashMap<String, AtomicInteger> slots = new ConcurrentHashMap<>();
+    private final ExecutorService calls = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("quota-", 0).factory());
+    private final ScheduledExecutorService renewer;
+    private final MeterRegistry meters;
+    private volatile long localUntilNs = System.nanoTime();
+
+    // tokens left to spend, or a refusal by the store remembered for one refill interval
+    private record Lease(AtomicInteger tokens, long expiresAtNs, boolean refused) {
+        boolean live(long now) { return expiresAtNs - now > 0; }
+    }
+
+    public ClusterQuotas(QuotaProperties props, QuotaStore store, MeterRegistry meters) {
+        this.props = props;
+        this.store = store;
+        this.meters = meters;
+        this.node = props.getNodeId().isBlank() ? UUID.randomUUID().toString() : props.getNodeId();
+        this.renewer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "quota-renewer");
+            t.setDaemon(true);
+            return t;
+        });
+        if (props.isEnabled()) {
+            long every = Math.max(1, props.getLeaseSeconds() / 3);
+            renewer.scheduleWithFixedDelay(this::renew, every, every, TimeUnit.SECONDS);
+        }
+        meters.gauge("coderank.quota.leases", leases, Map::size);
+    }
+
+    /** Takes one request token for the key from the cluster-wide bucket. */
+    public Verdict tryTake(String key, int perMinute, int burst) {
+        if (!active()) return Verdict.LOCAL;
+        long now = System.nanoTime();
+        Lease lease = leases.get(key);
+        if (lease != null && lease.live(now)) {
+            if (lease.refused()) return Verdict.DENIED;
+            if (spend(lease.tokens())) return Verdict.ALLOWED;
+        }
+        Integer granted = call(() -> store.take(key, perMinute, burst, Math.min(props.getLeaseSize(), burst)));
+        if (granted == null) return Verdict.LOCAL;
+        if (granted == 0) {
+            leases.put(key, new Lease(new AtomicInteger(), now + intervalNs(perMinute), true));
+            return Verdict.DENIED;
+        }
+        leases.put(key, new Lease(new AtomicInteger(granted - 1),
+                now + TimeUnit.SECONDS.toNanos(props.getLeaseSeconds()), false));
+        return Verdict.ALLOWED;
+    }
+
+    /** Claims one of the cap in-flight slots the key has across nodes. Release ALLOWED claims only. */
+    public Verdict claimSlot(String key, int cap) {
+        if (!active()) return Verdict.LOCAL;
+        Boolean claimed = call(() -> store.claimSlot(key, node, cap, props.getLeaseSeconds()));
+        if (claimed == null) return Verdict.LOCAL;
+        if (!claimed) return Verdict.DENIED;
+        slots.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+        return Verdict.ALLOWED;
+    }
+
+    public void releaseSlot(String key) {
+        slots.computeIfPresent(key, (k, n) -> n.decrementAndGet() <= 0 ? null : n);
+        // best effort: a lost release is corrected by the next renewal
+        calls.execute(() -> {
+            try {
+                store.releaseSlot(key, node);
+            } catch (RuntimeException e) {
+                log.debug("Quota slot release failed: {}", e.getMessage());
+            }
+        });
+    }
+
+    private boolean active() {
+        return props.isEnabled() && System.nanoTime() - localUntilNs >= 0;
+    }
+
+    private static boolean spend(AtomicInteger tokens) {
+        int n;
+        do {
+            n = tokens.get();
+            if (n <= 0) return false;
+        } while (!tokens.compareAndSet(n, n - 1));
+        return true;
+    }
+
+    private static long intervalNs(int perMinute) {
+        return TimeUnit.MINUTES.toNanos(1) / Math.max(1, perMinute);
+    }
+
+    // the store call, or null if it failed or took longer than storeTimeoutMs
+    private <T> T call(Callable<T> c) {
+        Future<T> f = calls.submit(c);
+        try {
+            return f.get(props.getStoreTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            f.cancel(true);
+            fallBack(e instanceof ExecutionException ee ? ee.getCause() : e);
+            return null;
+        }
+    }
+
+    private void fallBack(Throwable cause) {
+        boolean first = active();
+        localUntilNs = System.nanoTime() + TimeUnit.SECONDS.toNanos(props.getFallbackSeconds());
+        meters.counter("coderank.quota.fallback").increment();
+        if (first) {
+            log.warn("Quota store unavailable ({}), using local limits for {}s",
+                    cause.getClass().getSimpleName(), props.getFallbackSeconds());
+        }
+    }
+
+    private void renew() {
+        long now = System.nanoTime();
+        leases.values().removeIf(l -> !l.live(now));
+        Map<String, Integer> held = new HashMap<>();
+        slots.forEach((k, n) -> { if (n.get() > 0) held.put(k, n.get()); });
+        try {
+            store.renewSlots(node, held, props.getLeaseSeconds());
+        } catch (RuntimeException e) {
+            log.warn("Quota slot renewal failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renewer.shutdownNow();
+        if (props.isEnabled()) {
+            try {
+                store.renewSlots(node, Map.of(), props.getLeaseSeconds()); // hand back our slots
+            } catch (RuntimeException e) {
+                log.debug("Quota slot hand-back failed: {}", e.getMessage());
+            }
+        }
+        calls.shutdown();
+    }
+}
@@ -0,0 +1,57 @@
+package com.coderank.executor.quota;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+/** QuotaStore on the quota_buckets and quota_slots tables and their functions (V9). */
+@Component
+public class PostgresQuotaStore implements QuotaStore {
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+
+    public PostgresQuotaStore(JdbcTemplate jdbc, TransactionTemplate tx) {
+        this.jdbc = jdbc;
+        this.tx = tx;
+    }
+
+    @Override
+    public int take(String key, int perMinute, int burst, int want) {
+        Integer taken = jdbc.queryForObject("SELECT quota_take(?, ?, ?, ?)", Integer.class,
+                key, perMinute / 60.0, burst, want);
+        return taken == null ? 0 : taken;
+    }
+
+    @Override
+    public boolean claimSlot(String key, String node, int cap, int ttlSeconds) {
+        return Boolean.TRUE.equals(jdbc.queryForObject("SELECT quota_claim_slot(?, ?, ?, ?)", Boolean.class,
+                key, node, cap, ttlSeconds));
+    }
+
+    @Override
+    public void releaseSlot(String key, String node) {
+        jdbc.update("UPDATE quota_slots SET slots = slots - 1 WHERE key = ? AND node = ? AND slots > 0", key, node);
+    }
+
+    @Override
+    public void renewSlots(String node, Map<String, Integer> slots, int ttlSeconds) {
+        tx.executeWithoutResult(status -> {
+            jdbc.update("DELETE FROM quota_slots WHERE node = ?", node);
+            jdbc.batchUpdate("""
+                    INSERT INTO quota_slots (key, node, slots, expires_at)
+                    VALUES (?, ?, ?, now() + make_interval(secs => ?))
+                    """, new ArrayList<>(slots.entrySet()), 100, (ps, e) -> {
+                ps.setString(1, e.getKey());
+                ps.setString(2, node);
+                ps.setInt(3, e.getValue());
+                ps.setInt(4, ttlSeconds);
+            });
+            // slots of dead nodes, and buckets idle long enough to be full again (any limit refilling within the hour)
+            jdbc.update("DELETE FROM quota_slots WHERE expires_at < now()");
+            jdbc.update("DELETE FROM quota_buckets WHERE updated_at < now() - interval '1 hour'");
+        });
+    }
+}
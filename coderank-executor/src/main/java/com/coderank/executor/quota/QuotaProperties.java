@@ -0,0 +1,26 @@
+package com.coderank.executor.quota;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.quota")
+public class QuotaProperties {
+    private boolean enabled = false;     // enforce rate limits and in-flight caps across nodes (shared store)
+    private String nodeId = "";          // blank = random per start
+    private int leaseSize = 5;           // rate tokens a node takes from the store at once
+    private int leaseSeconds = 30;       // unused leased tokens expire; in-flight slots of a dead node too
+    private int storeTimeoutMs = 100;    // slower than this and the node falls back to local limits
+    private int fallbackSeconds = 30;    // how long to stay local before trying the store again
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public String getNodeId() { return nodeId; }
+    public void setNodeId(String nodeId) { this.nodeId = nodeId; }
+    public int getLeaseSize() { return leaseSize; }
+    public void setLeaseSize(int leaseSize) { this.leaseSize = leaseSize; }
+    public int getLeaseSeconds() { return leaseSeconds; }
+    public void setLeaseSeconds(int leaseSeconds) { this.leaseSeconds = leaseSeconds; }
+    public int getStoreTimeoutMs() { return storeTimeoutMs; }
+    public void setStoreTimeoutMs(int storeTimeoutMs) { this.storeTimeoutMs = storeTimeoutMs; }
+    public int getFallbackSeconds() { return fallbackSeconds; }
+    public void setFallbackSeconds(int fallbackSeconds) { this.fallbackSeconds = fallbackSeconds; }
+}
@@ -0,0 +1,18 @@
+package com.coderank.executor.quota;
+
+import java.util.Map;
+
+/** Where quotas shared by all nodes live. Calls may block on I/O; ClusterQuotas bounds them. */
+public interface QuotaStore {
+
+    /** Takes up to want tokens from the key's bucket (refilling perMinute, up to burst); returns how many. */
+    int take(String key, int perMinute, int burst, int want);
+
+    /** Claims one in-flight slot for the node unless all nodes together hold cap already. */
+    boolean claimSlot(String key, String node, int cap, int ttlSeconds);
+
+    void releaseSlot(String key, String node);
+
+    /** Replaces the node's slots with the counts given and extends them by ttlSeconds. */
+    void renewSlots(String node, Map<String, Integer> slots, int ttlSeconds);
+}
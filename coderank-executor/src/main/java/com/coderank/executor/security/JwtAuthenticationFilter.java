@@ -1,14 +1,15 @@
 package com.coderank.executor.security;
 
 
+import com.coderank.executor.user.User;
+import com.coderank.executor.user.UserRepository;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -20,12 +21,14 @@ import java.io.IOException;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final TokenCache tokens;
+    private final UserRepository users;
 
 
-    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtService jwtService, TokenCache tokens, UserRepository users) {
         this.jwtService = jwtService;
-        this.userDetailsService = userDetailsService;
+        this.tokens = tokens;
+        this.users = users;
     }
 
 
@@ -37,20 +40,32 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             chain.doFilter(request, response);
             return;
         }
-        String token = header.substring(7);
-        String username = null;
-        try { username = jwtService.extractUsername(token); } catch (Exception ignored) {}
-
-
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            if (jwtService.isTokenValid(token, userDetails)) {
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            User user = authenticate(header.substring(7));
+            if (user != null) {
                 UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
+                        user, null, user.getAuthorities());
                 auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(auth);
             }
         }
         chain.doFilter(request, response);
     }
+
+
+    // a cached token costs a map lookup; otherwise one verify and one indexed read of the token version
+    User authenticate(String token) {
+        User cached = tokens.get(token);
+        if (cached != null) return cached;
+        JwtService.Verified v;
+        try {
+            v = jwtService.verify(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        Integer current = users.findTokenVersion(v.user().getId()).orElse(null);
+        if (current == null || current != v.user().getTokenVersion()) return null; // revoked or deleted
+        tokens.put(token, v);
+        return v.user();
+    }
 }
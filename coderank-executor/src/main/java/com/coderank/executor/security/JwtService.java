@@ -1,22 +1,28 @@
 package com.coderank.executor.security;
 
 
+import com.coderank.executor.user.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.UUID;
 
 
 @Service
 public class JwtService {
+    private static final String USER_ID = "uid";
+    private static final String ROLE = "role";
+    private static final String VERSION = "ver";
+
     private final String issuer;
     private final long expiryMinutes;
     private final Key key;
+    private final JwtParser parser; // immutable and thread-safe, so built once
 
 
     public JwtService(
@@ -28,40 +34,48 @@ public class JwtService {
         this.expiryMinutes = expiryMinutes;
         byte[] keyBytes = Decoders.BASE64.decode(secretBase64);
         this.key = Keys.hmacShaKeyFor(keyBytes);
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
     }
 
 
-    public String extractUsername(String token) {
-        return parseAllClaims(token).getBody().getSubject();
-    }
+    /** A token whose signature and expiry were checked, with the principal its claims describe. */
+    public record Verified(User user, long expiresAtMs) {}
 
 
-    public boolean isTokenValid(String token, UserDetails user) {
-        try {
-            Jws<Claims> jws = parseAllClaims(token);
-            String subject = jws.getBody().getSubject();
-            Date exp = jws.getBody().getExpiration();
-            return subject != null && subject.equals(user.getUsername()) && exp.after(new Date());
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
+    /**
+     * Verifies the token once and builds the principal from its claims, without reading the users
+     * table. The principal carries id, email, role and token version only. Throws JwtException or
+     * IllegalArgumentException when the token is invalid, expired, or lacks those claims.
+     */
+    public Verified verify(String token) {
+        Claims c = parser.parseClaimsJws(token).getBody();
+        String userId = c.get(USER_ID, String.class);
+        String role = c.get(ROLE, String.class);
+        Integer version = c.get(VERSION, Integer.class);
+        if (c.getSubject() == null || userId == null || role == null || version == null) {
+            throw new IllegalArgumentException("Token lacks user claims");
         }
+        User u = new User();
+        u.setId(UUID.fromString(userId));
+        u.setEmail(c.getSubject());
+        u.setRole(role);
+        u.setTokenVersion(version);
+        return new Verified(u, c.getExpiration().getTime());
     }
 
 
-    public String generateToken(UserDetails user) {
+    public String generateToken(User user) {
         Date now = new Date();
         Date exp = new Date(now.getTime() + expiryMinutes * 60_000);
         return Jwts.builder()
                 .setSubject(user.getUsername())
+                .claim(USER_ID, user.getId().toString())
+                .claim(ROLE, user.getRole())
+                .claim(VERSION, user.getTokenVersion())
                 .setIssuer(issuer)
                 .setIssuedAt(now)
                 .setExpiration(exp)
                 .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
     }
-
-
-    private Jws<Claims> parseAllClaims(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
-    }
 }
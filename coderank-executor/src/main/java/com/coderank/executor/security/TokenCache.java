@@ -0,0 +1,95 @@
+package com.coderank.executor.security;
+
+
+import com.coderank.executor.user.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+/**
+ * Tokens verified recently, with their principal, so a client sending the same token again
+ * skips the HMAC check and the token version read. Entries live ttlSeconds at most (never past
+ * the token's own expiry), which bounds how long a revocation takes to reach other nodes. Reads
+ * take no lock; past maxEntries one writer sweeps out expired entries and then arbitrary ones,
+ * so the bound is approximate rather than least-recently-used.
+ */
+@Component
+public class TokenCache {
+    private final int maxEntries;
+    private final long ttlMs;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final Counter hits;
+    private final Counter misses;
+
+
+    private record Entry(User user, long expiresAtMs) {}
+
+
+    public TokenCache(@Value("${app.security.jwt.cacheMaxEntries:10000}") int maxEntries,
+                      @Value("${app.security.jwt.cacheTtlSeconds:30}") long ttlSeconds,
+                      MeterRegistry meters) {
+        this.maxEntries = maxEntries;
+        this.ttlMs = ttlSeconds * 1000;
+        this.hits = meters.counter("coderank.auth.token.cache", "result", "hit");
+        this.misses = meters.counter("coderank.auth.token.cache", "result", "miss");
+        meters.gauge("coderank.auth.token.cache.size", entries, ConcurrentHashMap::size);
+    }
+
+
+    public User get(String token) {
+        if (maxEntries <= 0) return null;
+        Entry e = entries.get(token);
+        if (e != null && e.expiresAtMs() <= System.currentTimeMillis()) {
+            entries.remove(token, e);
+            e = null;
+        }
+        (e == null ? misses : hits).increment();
+        return e == null ? null : e.user();
+    }
+
+
+    public void put(String token, JwtService.Verified v) {
+        if (maxEntries <= 0) return;
+        long expiresAt = Math.min(System.currentTimeMillis() + ttlMs, v.expiresAtMs());
+        entries.put(token, new Entry(v.user(), expiresAt));
+        if (entries.size() > maxEntries && sweeping.compareAndSet(false, true)) {
+            try {
+                sweep();
+            } finally {
+                sweeping.set(false);
+            }
+        }
+    }
+
+
+    /** Drops the user's tokens here at once; other nodes stop accepting them within ttlSeconds. */
+    public void evictUser(UUID userId) {
+        entries.values().removeIf(e -> userId.equals(e.user().getId()));
+    }
+
+
+    int size() {
+        return entries.size();
+    }
+
+
+    // expired entries first; if that is not enough, any entries down to 90% of the cap, so the
+    // next sweep is some puts away
+    private void sweep() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(e -> e.expiresAtMs() <= now);
+        int target = maxEntries - maxEntries / 10;
+        for (Iterator<Entry> it = entries.values().iterator(); it.hasNext() && entries.size() > target; ) {
+            it.next();
+            it.remove();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.coderank.executor.submit;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The content_blobs table: submission texts stored once per distinct content, keyed by the
+ * SHA-256 of their UTF-8 bytes and gzip-compressed when that makes them smaller. Contents are
+ * immutable; a submission references its texts by hash and reads them only when asked for.
+ * Each write also stamps the blob with the current (UTC) month, so that it outlives every
+ * submission referencing it until SubmissionPartitions collects it with their month.
+ */
+@Component
+public class BlobStore {
+    private static final String INSERT = """
+            INSERT INTO content_blobs (hash, data, gzip, size, last_used) VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (hash) DO UPDATE SET last_used = EXCLUDED.last_used
+             WHERE content_blobs.last_used < EXCLUDED.last_used
+            """;
+
+    private final JdbcTemplate jdbc;
+
+    public BlobStore(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /** Writes the texts set on the submission. Call before saving it; the row references them. */
+    public void store(Submission s) {
+        store(List.of(s));
+    }
+
+    public void store(Collection<Submission> rows) {
+        // sorted, so concurrent writers insert shared blobs in the same order
+        Map<String, String> texts = new TreeMap<>();
+        for (Submission s : rows) s.unsavedTexts(texts);
+        put(texts);
+    }
+
+    /** Writes one text, returning its hash. */
+    public String put(String text) {
+        String hash = hash(text);
+        put(Map.of(hash, text));
+        return hash;
+    }
+
+    private void put(Map<String, String> texts) {
+        if (texts.isEmpty()) return;
+        LocalDate month = LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1);
+        jdbc.batchUpdate(INSERT, texts.entrySet(), texts.size(), (ps, e) -> {
+            byte[] raw = e.getValue().getBytes(StandardCharsets.UTF_8);
+            byte[] packed = gzip(raw);
+            boolean smaller = packed.length < raw.length;
+            ps.setString(1, e.getKey());
+            ps.setBytes(2, smaller ? packed : raw);
+            ps.setBoolean(3, smaller);
+            ps.setInt(4, raw.length);
+            ps.setObject(5, month);
+        });
+    }
+
+    /** Reads the texts of many submissions in one query, instead of one per text on access. */
+    public void preload(Collection<Submission> rows) {
+        List<String> hashes = rows.stream().flatMap(s -> s.unloadedHashes().stream()).distinct().toList();
+        if (hashes.isEmpty()) return;
+        Map<String, String> texts = new HashMap<>();
+        jdbc.query("SELECT hash, data, gzip FROM content_blobs WHERE hash = ANY (?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", hashes.toArray())),
+                rs -> { texts.put(rs.getString(1), decode(rs.getBytes(2), rs.getBoolean(3))); });
+        for (Submission s : rows) s.loaded(texts);
+    }
+
+    String text(String hash) {
+        List<String> found = jdbc.query("SELECT data, gzip FROM content_blobs WHERE hash = ?",
+                (rs, i) -> decode(rs.getBytes(1), rs.getBoolean(2)), hash);
+        if (found.isEmpty()) throw new IllegalStateException("Missing content blob " + hash);
+        return found.get(0);
+    }
+
+    public static String hash(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] raw) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 4 + 32);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(raw);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String decode(byte[] data, boolean gzip) {
+        if (!gzip) return new String(data, StandardCharsets.UTF_8);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -2,10 +2,19 @@ package com.coderank.executor.submit;
 
 import jakarta.persistence.*;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
+/**
+ * Source, stdin, stdout and stderr live in content_blobs (see {@link BlobStore}); the row holds
+ * their hashes. A text is read the first time its getter is called, or in bulk via
+ * {@link BlobStore#preload}.
+ */
 @Entity
 @Table(name = "submissions")
+@EntityListeners(SubmissionBlobs.class)
 public class Submission {
 
     @Id
@@ -18,27 +27,47 @@ public class Submission {
     @Column(name = "language_code", nullable = false, length = 32)
     private String languageCode;
 
-    // Use TEXT columns to match Flyway schema (avoid @Lob which maps to OID/CLOB in PG)
-    @Column(name = "source_code", nullable = false, columnDefinition = "text")
-    private String sourceCode;
+    @Column(name = "source_hash", nullable = false, length = 64)
+    private String sourceHash;
 
-    @Column(name = "stdin", columnDefinition = "text")
-    private String stdin;
+    @Column(name = "stdin_hash", length = 64)
+    private String stdinHash;
 
-    @Column(name = "stdout", columnDefinition = "text")
-    private String stdout;
+    @Column(name = "stdout_hash", length = 64)
+    private String stdoutHash;
 
-    @Column(name = "stderr", columnDefinition = "text")
-    private String stderr;
+    @Column(name = "stderr_hash", length = 64)
+    private String stderrHash;
+
+    @Transient private String sourceCode;
+    @Transient private String stdin;
+    @Transient private String stdout;
+    @Transient private String stderr;
+    @Transient private BlobStore blobs;  // set on load, reads texts on first access
+    @Transient private int unsaved;      // texts set on this object, by bit
+
+    private static final int SOURCE = 1, STDIN = 2, STDOUT = 4, STDERR = 8;
 
     @Column(nullable = false, length = 32)
-    private String status; // SUCCESS / COMPILE_ERROR / RUNTIME_ERROR / TIMEOUT / INTERNAL_ERROR
+    private String status; // QUEUED / SUCCESS / COMPILE_ERROR / RUNTIME_ERROR / TIMEOUT / OUTPUT_LIMIT_EXCEEDED / INTERNAL_ERROR
 
     @Column(name = "exec_time_ms")
     private Integer execTimeMs;
 
     @Column(name = "memory_kb")
-    private Integer memoryKb;
+    private Integer memoryKb; // peak of the run; null when it stayed under the compiler's
+
+    @Column(name = "compile_memory_kb")
+    private Integer compileMemoryKb; // peak at the end of the compile step
+
+    @Column(name = "compile_time_ms")
+    private Integer compileTimeMs;
+
+    @Column(name = "run_time_ms")
+    private Integer runTimeMs;
+
+    @Column(name = "cpu_time_ms")
+    private Integer cpuTimeMs; // user + sys of the run
 
     @Column(name = "created_at", nullable = false)
     private Instant createdAt;
@@ -55,17 +84,22 @@ public class Submission {
     public String getLanguageCode() { return languageCode; }
     public void setLanguageCode(String languageCode) { this.languageCode = languageCode; }
 
-    public String getSourceCode() { return sourceCode; }
-    public void setSourceCode(String sourceCode) { this.sourceCode = sourceCode; }
+    public String getSourceCode() { return sourceCode = load(sourceCode, sourceHash); }
+    public void setSourceCode(String sourceCode) { this.sourceCode = sourceCode; sourceHash = hash(sourceCode); unsaved |= SOURCE; }
 
-    public String getStdin() { return stdin; }
-    public void setStdin(String stdin) { this.stdin = stdin; }
+    public String getStdin() { return stdin = load(stdin, stdinHash); }
+    public void setStdin(String stdin) { this.stdin = stdin; stdinHash = hash(stdin); unsaved |= STDIN; }
 
-    public String getStdout() { return stdout; }
-    public void setStdout(String stdout) { this.stdout = stdout; }
+    public String getStdout() { return stdout = load(stdout, stdoutHash); }
+    public void setStdout(String stdout) { this.stdout = stdout; stdoutHash = hash(stdout); unsaved |= STDOUT; }
 
-    public String getStderr() { return stderr; }
-    public void setStderr(String stderr) { this.stderr = stderr; }
+    public String getStderr() { return stderr = load(stderr, stderrHash); }
+    public void setStderr(String stderr) { this.stderr = stderr; stderrHash = hash(stderr); unsaved |= STDERR; }
+
+    public String getSourceHash() { return sourceHash; }
+    public String getStdinHash() { return stdinHash; }
+    public String getStdoutHash() { return stdoutHash; }
+    public String getStderrHash() { return stderrHash; }
 
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
@@ -75,7 +109,53 @@ public class Submission {
 
     public Integer getMemoryKb() { return memoryKb; }
     public void setMemoryKb(Integer memoryKb) { this.memoryKb = memoryKb; }
+    public Integer getCompileMemoryKb() { return compileMemoryKb; }
+    public void setCompileMemoryKb(Integer compileMemoryKb) { this.compileMemoryKb = compileMemoryKb; }
+
+    public Integer getCompileTimeMs() { return compileTimeMs; }
+    public void setCompileTimeMs(Integer compileTimeMs) { this.compileTimeMs = compileTimeMs; }
+
+    public Integer getRunTimeMs() { return runTimeMs; }
+    public void setRunTimeMs(Integer runTimeMs) { this.runTimeMs = runTimeMs; }
+
+    public Integer getCpuTimeMs() { return cpuTimeMs; }
+    public void setCpuTimeMs(Integer cpuTimeMs) { this.cpuTimeMs = cpuTimeMs; }
 
     public Instant getCreatedAt() { return createdAt; }
     public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+
+    private String load(String text, String hash) {
+        if (text != null || hash == null || blobs == null) return text;
+        return blobs.text(hash);
+    }
+
+    private static String hash(String text) {
+        return text == null ? null : BlobStore.hash(text);
+    }
+
+    void attach(BlobStore blobs) { this.blobs = blobs; }
+
+    // texts set here, by hash; written again on every store so a rolled-back write is repeated
+    void unsavedTexts(Map<String, String> into) {
+        if ((unsaved & SOURCE) != 0 && sourceCode != null) into.put(sourceHash, sourceCode);
+        if ((unsaved & STDIN) != 0 && stdin != null) into.put(stdinHash, stdin);
+        if ((unsaved & STDOUT) != 0 && stdout != null) into.put(stdoutHash, stdout);
+        if ((unsaved & STDERR) != 0 && stderr != null) into.put(stderrHash, stderr);
+    }
+
+    List<String> unloadedHashes() {
+        List<String> hashes = new ArrayList<>(4);
+        if (sourceCode == null && sourceHash != null) hashes.add(sourceHash);
+        if (stdin == null && stdinHash != null) hashes.add(stdinHash);
+        if (stdout == null && stdoutHash != null) hashes.add(stdoutHash);
+        if (stderr == null && stderrHash != null) hashes.add(stderrHash);
+        return hashes;
+    }
+
+    void loaded(Map<String, String> texts) {
+        if (sourceCode == null && sourceHash != null) sourceCode = texts.get(sourceHash);
+        if (stdin == null && stdinHash != null) stdin = texts.get(stdinHash);
+        if (stdout == null && stdoutHash != null) stdout = texts.get(stdoutHash);
+        if (stderr == null && stderrHash != null) stderr = texts.get(stderrHash);
+    }
 }
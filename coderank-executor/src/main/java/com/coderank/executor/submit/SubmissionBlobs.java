@@ -0,0 +1,17 @@
+package com.coderank.executor.submit;
+
+import jakarta.persistence.PostLoad;
+
+/** Gives loaded submissions the store their texts are read from. Created through Spring, so it can be injected. */
+public class SubmissionBlobs {
+    private final BlobStore blobs;
+
+    public SubmissionBlobs(BlobStore blobs) {
+        this.blobs = blobs;
+    }
+
+    @PostLoad
+    void attach(Submission s) {
+        s.attach(blobs);
+    }
+}
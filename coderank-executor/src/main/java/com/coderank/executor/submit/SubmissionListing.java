@@ -0,0 +1,88 @@
+package com.coderank.executor.submit;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Newest-first listing of submissions by keyset: a page continues strictly after the
+ * (created_at, id) of the previous page's last row, so every page is an index range scan
+ * however deep it is. Only the needed columns are read, never the texts.
+ */
+@Component
+public class SubmissionListing {
+    private final JdbcTemplate jdbc;
+
+    public SubmissionListing(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /** Filters are optional (null); cursor is a previous page's nextCursor, or null for the first page. */
+    public SubmissionPage page(int limit, String cursor, UUID userId, String language, String status) {
+        StringBuilder where = new StringBuilder("TRUE");
+        List<Object> args = new ArrayList<>();
+        if (userId != null) { where.append(" AND user_id = ?"); args.add(userId); }
+        if (language != null) { where.append(" AND language_code = ?"); args.add(language); }
+        if (status != null) { where.append(" AND status = ?"); args.add(status); }
+        if (cursor != null) {
+            Key after = Key.decode(cursor);
+            where.append(" AND (created_at, id) < (?, ?)");
+            args.add(after.createdAt());
+            args.add(after.id());
+        }
+        args.add(limit + 1); // one extra row tells whether there is a next page
+
+        // blob sizes are joined after the limit, so only for the rows returned
+        List<Row> rows = jdbc.query("""
+                SELECT s.id, s.user_id, s.language_code, s.status, s.exec_time_ms, s.compile_time_ms,
+                       s.run_time_ms, s.cpu_time_ms, s.memory_kb, s.created_at,
+                       src.size, sin.size, sout.size, serr.size
+                  FROM (SELECT * FROM submissions WHERE %s ORDER BY created_at DESC, id DESC LIMIT ?) s
+                  LEFT JOIN content_blobs src ON src.hash = s.source_hash
+                  LEFT JOIN content_blobs sin ON sin.hash = s.stdin_hash
+                  LEFT JOIN content_blobs sout ON sout.hash = s.stdout_hash
+                  LEFT JOIN content_blobs serr ON serr.hash = s.stderr_hash
+                 ORDER BY s.created_at DESC, s.id DESC
+                """.formatted(where), (rs, i) -> {
+            LocalDateTime createdAt = rs.getObject(10, LocalDateTime.class);
+            return new Row(new Key(createdAt, rs.getObject(1, UUID.class)), new SubmissionSummary(
+                    rs.getObject(1, UUID.class), rs.getObject(2, UUID.class), rs.getString(3), rs.getString(4),
+                    rs.getObject(5, Integer.class), rs.getObject(6, Integer.class), rs.getObject(7, Integer.class),
+                    rs.getObject(8, Integer.class), rs.getObject(9, Integer.class), rs.getObject(11, Integer.class),
+                    rs.getObject(12, Integer.class), rs.getObject(13, Integer.class), rs.getObject(14, Integer.class),
+                    createdAt.toInstant(ZoneOffset.UTC)));
+        }, args.toArray());
+
+        boolean more = rows.size() > limit;
+        List<Row> page = more ? rows.subList(0, limit) : rows;
+        String next = more ? page.get(page.size() - 1).key().encode() : null;
+        return new SubmissionPage(page.stream().map(Row::summary).toList(), next);
+    }
+
+    private record Row(Key key, SubmissionSummary summary) {}
+
+    // created_at is a UTC TIMESTAMP; kept as LocalDateTime so the cursor round-trips exactly
+    private record Key(LocalDateTime createdAt, UUID id) {
+        String encode() {
+            String raw = createdAt + "," + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Key decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int comma = raw.indexOf(',');
+                return new Key(LocalDateTime.parse(raw.substring(0, comma)), UUID.fromString(raw.substring(comma + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+    }
+}
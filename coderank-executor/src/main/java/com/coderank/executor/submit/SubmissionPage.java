@@ -0,0 +1,17 @@
+package com.coderank.executor.submit;
+
+import java.util.List;
+
+/** One page of a listing; nextCursor is null on the last page. */
+public class SubmissionPage {
+    private final List<SubmissionSummary> items;
+    private final String nextCursor;
+
+    public SubmissionPage(List<SubmissionSummary> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<SubmissionSummary> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+}
@@ -0,0 +1,57 @@
+package com.coderank.executor.submit;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/** A submission without its texts: metadata, timings and the sizes of source, stdin, stdout and stderr. */
+public class SubmissionSummary {
+    private final UUID id;
+    private final UUID userId;
+    private final String languageCode;
+    private final String status;
+    private final Integer execTimeMs;
+    private final Integer compileTimeMs;
+    private final Integer runTimeMs;
+    private final Integer cpuTimeMs;
+    private final Integer memoryKb;
+    private final Integer sourceBytes;
+    private final Integer stdinBytes;
+    private final Integer stdoutBytes;
+    private final Integer stderrBytes;
+    private final Instant createdAt;
+
+    public SubmissionSummary(UUID id, UUID userId, String languageCode, String status,
+                             Integer execTimeMs, Integer compileTimeMs, Integer runTimeMs, Integer cpuTimeMs,
+                             Integer memoryKb, Integer sourceBytes, Integer stdinBytes, Integer stdoutBytes,
+                             Integer stderrBytes, Instant createdAt) {
+        this.id = id;
+        this.userId = userId;
+        this.languageCode = languageCode;
+        this.status = status;
+        this.execTimeMs = execTimeMs;
+        this.compileTimeMs = compileTimeMs;
+        this.runTimeMs = runTimeMs;
+        this.cpuTimeMs = cpuTimeMs;
+        this.memoryKb = memoryKb;
+        this.sourceBytes = sourceBytes;
+        this.stdinBytes = stdinBytes;
+        this.stdoutBytes = stdoutBytes;
+        this.stderrBytes = stderrBytes;
+        this.createdAt = createdAt;
+    }
+
+    public UUID getId() { return id; }
+    public UUID getUserId() { return userId; }
+    public String getLanguageCode() { return languageCode; }
+    public String getStatus() { return status; }
+    public Integer getExecTimeMs() { return execTimeMs; }
+    public Integer getCompileTimeMs() { return compileTimeMs; }
+    public Integer getRunTimeMs() { return runTimeMs; }
+    public Integer getCpuTimeMs() { return cpuTimeMs; }
+    public Integer getMemoryKb() { return memoryKb; }
+    public Integer getSourceBytes() { return sourceBytes; }
+    public Integer getStdinBytes() { return stdinBytes; }
+    public Integer getStdoutBytes() { return stdoutBytes; }
+    public Integer getStderrBytes() { return stderrBytes; }
+    public Instant getCreatedAt() { return createdAt; }
+}
@@ -35,6 +35,11 @@ public class User implements UserDetails {
     private Instant createdAt;
 
 
+    // embedded in issued tokens; bumping it revokes every token issued before
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion;
+
+
     @PrePersist
     void onCreate() { if (createdAt == null) createdAt = Instant.now(); }
 
@@ -50,6 +55,8 @@ public class User implements UserDetails {
     public void setRole(String role) { this.role = role; }
     public Instant getCreatedAt() { return createdAt; }
     public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+    public int getTokenVersion() { return tokenVersion; }
+    public void setTokenVersion(int tokenVersion) { this.tokenVersion = tokenVersion; }
 
 
     // UserDetails
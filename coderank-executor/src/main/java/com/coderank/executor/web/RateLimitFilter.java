@@ -1,7 +1,10 @@
 package com.coderank.executor.web;
 
+import com.coderank.executor.quota.ClusterQuotas;
 import com.coderank.executor.user.User;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -13,34 +16,42 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.time.Instant;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 @Component
 @EnableConfigurationProperties(RateLimitProperties.class)
 public class RateLimitFilter extends OncePerRequestFilter {
 
     private final RateLimitProperties props;
+    private final ClusterQuotas quotas;
     private final ObjectMapper mapper = new ObjectMapper();
+    private final RateLimiter limiter = new RateLimiter();
+    private final ScheduledExecutorService evictor;
 
-    public RateLimitFilter(RateLimitProperties props) {
+    public RateLimitFilter(RateLimitProperties props, ClusterQuotas quotas, MeterRegistry meters) {
         this.props = props;
+        this.quotas = quotas;
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ratelimit-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        int every = Math.max(1, props.getEvictIntervalSeconds());
+        evictor.scheduleWithFixedDelay(limiter::evictIdle, every, every, TimeUnit.SECONDS);
+        meters.gauge("coderank.ratelimit.keys", limiter, RateLimiter::size);
     }
 
-    private static final class Counter {
-        volatile long windowStartEpochMinute;
-        final AtomicInteger count = new AtomicInteger(0);
-    }
-
-    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
-
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) throws ServletException {
-        // limit only POST /api/execute
-        return !("POST".equalsIgnoreCase(request.getMethod()) && "/api/execute".equals(request.getRequestURI()));
+        // limit only execution submits: POST /api/execute(/batch), /api/executions and /api/executions/stream
+        String uri = request.getRequestURI();
+        return !("POST".equalsIgnoreCase(request.getMethod())
+                && ("/api/execute".equals(uri) || "/api/execute/batch".equals(uri)
+                    || "/api/executions".equals(uri) || "/api/executions/stream".equals(uri)));
     }
 
     @Override
@@ -57,45 +68,41 @@ public class RateLimitFilter extends OncePerRequestFilter {
         }
         RequestIpHolder.set(ip);
         try {
-            int limit = props.getExecute().getPerMinute();
-            if (limit <= 0) { // disabled
+            // an endpoint override gets its own bucket; otherwise the caller's role decides the limit
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            String key = resolveKey(auth);
+            RateLimitProperties.Limit limit = props.getEndpoints().get(req.getRequestURI());
+            if (limit != null) {
+                key = key + "|" + req.getRequestURI();
+            } else {
+                limit = auth != null && auth.getPrincipal() instanceof User u
+                        ? props.getRoles().getOrDefault(u.getRole(), props.getExecute())
+                        : props.getExecute();
+            }
+            if (limit.getPerMinute() <= 0) { // disabled
                 chain.doFilter(req, res);
                 return;
             }
 
-            String key = resolveKey();
-            long nowMin = Instant.now().getEpochSecond() / 60;
-            Counter c = counters.computeIfAbsent(key, k -> {
-                Counter nc = new Counter();
-                nc.windowStartEpochMinute = nowMin;
-                return nc;
-            });
-
-            synchronized (c) {
-                if (c.windowStartEpochMinute != nowMin) {
-                    c.windowStartEpochMinute = nowMin;
-                    c.count.set(0);
+            // the cluster-wide bucket when there is one; the local one when disabled or unreachable
+            int burst = limit.effectiveBurst();
+            res.setHeader("X-RateLimit-Limit", String.valueOf(burst));
+            switch (quotas.tryTake(key, limit.getPerMinute(), burst)) {
+                case ALLOWED -> {
+                    chain.doFilter(req, res);
+                    return;
                 }
-                int used = c.count.incrementAndGet();
-                int remaining = Math.max(0, limit - used);
-                res.setHeader("X-RateLimit-Limit", String.valueOf(limit));
-                res.setHeader("X-RateLimit-Remaining", String.valueOf(remaining));
-                res.setHeader("X-RateLimit-Window", "60"); // seconds
-
-                if (used > limit) {
-                    res.setStatus(429);
-                    long resetSec = 60 - (Instant.now().getEpochSecond() % 60);
-                    res.setHeader("Retry-After", String.valueOf(resetSec));
-                    res.setContentType("application/json");
-                    mapper.writeValue(res.getOutputStream(), Map.of(
-                            "error", "too_many_requests",
-                            "message", "Rate limit exceeded. Try again later.",
-                            "limit", limit,
-                            "remaining", 0,
-                            "resetSeconds", resetSec
-                    ));
+                case DENIED -> {
+                    reject(res, burst, TimeUnit.MINUTES.toNanos(1) / limit.getPerMinute());
                     return;
                 }
+                case LOCAL -> { }
+            }
+            RateLimiter.Decision d = limiter.acquire(key, limit.getPerMinute(), burst);
+            res.setHeader("X-RateLimit-Remaining", String.valueOf(d.remaining()));
+            if (!d.allowed()) {
+                reject(res, d.limit(), d.retryAfterNanos());
+                return;
             }
 
             chain.doFilter(req, res);
@@ -104,14 +111,33 @@ public class RateLimitFilter extends OncePerRequestFilter {
         }
     }
 
-    private String resolveKey() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+    private void reject(HttpServletResponse res, int limit, long retryAfterNanos) throws IOException {
+        long retrySec = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + 999_999_999));
+        res.setStatus(429);
+        res.setHeader("X-RateLimit-Remaining", "0");
+        res.setHeader("Retry-After", String.valueOf(retrySec));
+        res.setContentType("application/json");
+        mapper.writeValue(res.getOutputStream(), Map.of(
+                "error", "too_many_requests",
+                "message", "Rate limit exceeded. Try again later.",
+                "limit", limit,
+                "remaining", 0,
+                "resetSeconds", retrySec
+        ));
+    }
+
+    private String resolveKey(Authentication auth) {
         if (auth != null && auth.getPrincipal() instanceof User u && u.getId() != null) {
             return "u:" + u.getId();
         }
         return "ip:" + Objects.toString(RequestIpHolder.getClientIp(), "unknown");
     }
 
+    @PreDestroy
+    public void shutdown() {
+        evictor.shutdownNow();
+    }
+
     /** Minimal ThreadLocal IP holder */
     private static final class RequestIpHolder {
         private static final ThreadLocal<String> IP = new ThreadLocal<>();
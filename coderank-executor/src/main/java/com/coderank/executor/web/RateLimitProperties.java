@@ -2,17 +2,37 @@ package com.coderank.executor.web;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @ConfigurationProperties(prefix = "app.ratelimit")
 public class RateLimitProperties {
 
-    private final Execute execute = new Execute();
+    /** Allowed requests to the execution endpoints (per user or IP). */
+    private final Limit execute = new Limit();
+    /** Overrides of execute by role (USER, ADMIN). */
+    private Map<String, Limit> roles = new HashMap<>();
+    /** Overrides by path, with a bucket of their own; take precedence over roles. */
+    private Map<String, Limit> endpoints = new HashMap<>();
+    private int evictIntervalSeconds = 60; // how often buckets of idle keys are dropped
 
-    public Execute getExecute() { return execute; }
+    public Limit getExecute() { return execute; }
+    public Map<String, Limit> getRoles() { return roles; }
+    public void setRoles(Map<String, Limit> roles) { this.roles = roles; }
+    public Map<String, Limit> getEndpoints() { return endpoints; }
+    public void setEndpoints(Map<String, Limit> endpoints) { this.endpoints = endpoints; }
+    public int getEvictIntervalSeconds() { return evictIntervalSeconds; }
+    public void setEvictIntervalSeconds(int evictIntervalSeconds) { this.evictIntervalSeconds = evictIntervalSeconds; }
 
-    public static class Execute {
-        /** Allowed requests per minute to POST /api/execute (per user or IP). */
+    public static class Limit {
+        /** Tokens refilled per minute. */
         private int perMinute = 30;
+        /** Bucket size, i.e. requests allowed back to back; 0 = perMinute. */
+        private int burst = 0;
         public int getPerMinute() { return perMinute; }
         public void setPerMinute(int perMinute) { this.perMinute = perMinute; }
+        public int getBurst() { return burst; }
+        public void setBurst(int burst) { this.burst = burst; }
+        public int effectiveBurst() { return burst > 0 ? burst : perMinute; }
     }
 }
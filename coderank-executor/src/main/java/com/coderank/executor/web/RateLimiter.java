@@ -0,0 +1,81 @@
+package com.coderank.executor.web;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets per key, each a single long updated by CAS. The long is the bucket's theoretical
+ * arrival time (GCRA): the instant at which it would be full again. A request moves it forward by
+ * one refill interval and is refused if that puts it more than burst intervals ahead of now.
+ * A bucket whose time has passed is full, so it can be evicted without losing anything.
+ */
+final class RateLimiter {
+    private static final long EVICTED = Long.MIN_VALUE;
+
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+
+    /** retryAfterNanos is 0 when allowed. */
+    record Decision(boolean allowed, int limit, int remaining, long retryAfterNanos) {}
+
+    private static final class Bucket {
+        final int burst;
+        final long intervalNs;  // one token refills in this time
+        final long toleranceNs; // burst * intervalNs: how far ahead of now the arrival time may run
+        final AtomicLong tat;
+
+        Bucket(int perMinute, int burst, long now) {
+            this.burst = burst;
+            this.intervalNs = 60_000_000_000L / perMinute;
+            this.toleranceNs = burst * intervalNs;
+            this.tat = new AtomicLong(now);
+        }
+    }
+
+    RateLimiter(LongSupplier nanoClock) {
+        this.clock = nanoClock;
+    }
+
+    RateLimiter() {
+        this(System::nanoTime);
+    }
+
+    /** Takes one token from the key's bucket (refilling perMinute, holding up to burst). */
+    Decision acquire(String key, int perMinute, int burst) {
+        long now = clock.getAsLong();
+        while (true) {
+            Bucket b = buckets.computeIfAbsent(key, k -> new Bucket(perMinute, burst, now));
+            long tat;
+            while ((tat = b.tat.get()) != EVICTED) {
+                long next = (tat - now < 0 ? now : tat) + b.intervalNs;
+                long ahead = next - now;
+                if (ahead > b.toleranceNs) return new Decision(false, b.burst, 0, ahead - b.toleranceNs);
+                if (b.tat.compareAndSet(tat, next)) {
+                    return new Decision(true, b.burst, (int) ((b.toleranceNs - ahead) / b.intervalNs), 0);
+                }
+            }
+            // evicted between lookup and update: make sure it is out of the map and take a fresh one
+            buckets.remove(key, b);
+        }
+    }
+
+    /** Removes full buckets, i.e. keys idle long enough to have refilled. Returns how many. */
+    int evictIdle() {
+        long now = clock.getAsLong();
+        int removed = 0;
+        for (var e : buckets.entrySet()) {
+            Bucket b = e.getValue();
+            long tat = b.tat.get();
+            if (tat != EVICTED && tat - now <= 0 && b.tat.compareAndSet(tat, EVICTED)) {
+                buckets.remove(e.getKey(), b);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    int size() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,6 @@
+-- Owner of each job, so enqueueing can cap a user's queued and running jobs without joining submissions
+ALTER TABLE execution_jobs ADD COLUMN user_id UUID;
+
+UPDATE execution_jobs j SET user_id = s.user_id FROM submissions s WHERE s.id = j.submission_id;
+
+CREATE INDEX execution_jobs_user_idx ON execution_jobs (user_id);
@@ -0,0 +1,32 @@
+-- Blobs are collected with submission retention (see SubmissionPartitions): each records the
+-- latest month a submission was written with it and is deleted once that month has aged out.
+-- This replaces the foreign keys from submissions, whose checks would scan every partition for
+-- each deleted blob, as the hash columns are not indexed.
+ALTER TABLE content_blobs ADD COLUMN last_used DATE;
+
+UPDATE content_blobs b
+   SET last_used = u.month
+  FROM (SELECT hash, date_trunc('month', MAX(created_at))::date AS month
+          FROM (SELECT source_hash AS hash, created_at FROM submissions
+                UNION ALL SELECT stdin_hash, created_at FROM submissions
+                UNION ALL SELECT stdout_hash, created_at FROM submissions
+                UNION ALL SELECT stderr_hash, created_at FROM submissions) refs
+         WHERE hash IS NOT NULL
+         GROUP BY hash) u
+ WHERE b.hash = u.hash;
+-- the rest may belong to detached partitions: they age out from now
+UPDATE content_blobs SET last_used = date_trunc('month', NOW())::date WHERE last_used IS NULL;
+
+ALTER TABLE content_blobs ALTER COLUMN last_used SET NOT NULL;
+CREATE INDEX content_blobs_last_used_idx ON content_blobs (last_used);
+
+DO $$
+DECLARE
+    fk TEXT;
+BEGIN
+    FOR fk IN SELECT conname FROM pg_constraint
+               WHERE conrelid = 'submissions'::regclass AND confrelid = 'content_blobs'::regclass AND contype = 'f'
+    LOOP
+        EXECUTE format('ALTER TABLE submissions DROP CONSTRAINT %I', fk);
+    END LOOP;
+END $$;
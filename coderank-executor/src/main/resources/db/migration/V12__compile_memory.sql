@@ -0,0 +1,2 @@
+-- The compiler's peak memory, apart from the run's (memory_kb)
+ALTER TABLE submissions ADD COLUMN compile_memory_kb INTEGER;
@@ -0,0 +1,12 @@
+-- Job queue for distributed worker mode (app.exec.jobs.mode=postgres)
+CREATE TABLE execution_jobs (
+                                submission_id UUID NOT NULL PRIMARY KEY REFERENCES submissions(id) ON DELETE CASCADE,
+                                state VARCHAR(16) NOT NULL DEFAULT 'QUEUED', -- QUEUED / RUNNING
+                                attempts INTEGER NOT NULL DEFAULT 0,
+                                worker_id VARCHAR(128),
+                                lease_until TIMESTAMP,
+                                created_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX execution_jobs_queued_idx ON execution_jobs (created_at) WHERE state = 'QUEUED';
+CREATE INDEX execution_jobs_lease_idx ON execution_jobs (lease_until) WHERE state = 'RUNNING';
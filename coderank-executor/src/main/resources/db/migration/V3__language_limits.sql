@@ -0,0 +1,11 @@
+-- Per-language resource profile and bulkhead sizes (NULL = global app.exec settings)
+ALTER TABLE languages
+    ADD COLUMN cpus DOUBLE PRECISION,
+    ADD COLUMN memory VARCHAR(16),
+    ADD COLUMN time_limit_seconds INTEGER,
+    ADD COLUMN max_concurrent INTEGER,
+    ADD COLUMN queue_capacity INTEGER;
+
+-- javac + java are two JVM startups: more CPU and memory, fewer at a time
+UPDATE languages SET cpus = 1.0, memory = '512m', max_concurrent = 3 WHERE code = 'java';
+UPDATE languages SET cpus = 1.0, max_concurrent = 4 WHERE code = 'cpp';
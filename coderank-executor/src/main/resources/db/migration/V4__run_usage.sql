@@ -0,0 +1,5 @@
+-- Per-run usage read from the sandbox's cgroup; exec_time_ms stays the wall-clock total
+ALTER TABLE submissions
+    ADD COLUMN compile_time_ms INTEGER,
+    ADD COLUMN run_time_ms INTEGER,
+    ADD COLUMN cpu_time_ms INTEGER;
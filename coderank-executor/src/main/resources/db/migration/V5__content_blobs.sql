@@ -0,0 +1,41 @@
+-- Submission texts stored once per distinct content, keyed by the SHA-256 of their UTF-8 bytes.
+-- The application gzips a blob when that makes it smaller; rows copied here stay as they were.
+CREATE TABLE content_blobs (
+    hash       VARCHAR(64) NOT NULL PRIMARY KEY,
+    data       BYTEA       NOT NULL,
+    gzip       BOOLEAN     NOT NULL,
+    size       INTEGER     NOT NULL, -- uncompressed bytes
+    created_at TIMESTAMP   NOT NULL DEFAULT NOW()
+);
+-- already compressed by the application: keep TOAST from compressing it again
+ALTER TABLE content_blobs ALTER COLUMN data SET STORAGE EXTERNAL;
+
+ALTER TABLE submissions
+    ADD COLUMN source_hash VARCHAR(64) REFERENCES content_blobs (hash),
+    ADD COLUMN stdin_hash  VARCHAR(64) REFERENCES content_blobs (hash),
+    ADD COLUMN stdout_hash VARCHAR(64) REFERENCES content_blobs (hash),
+    ADD COLUMN stderr_hash VARCHAR(64) REFERENCES content_blobs (hash);
+
+-- existing rows: move the inline texts into blobs
+INSERT INTO content_blobs (hash, data, gzip, size)
+SELECT encode(sha256(b), 'hex'), b, FALSE, octet_length(b)
+  FROM (SELECT DISTINCT convert_to(t, 'UTF8') AS b
+          FROM (SELECT source_code AS t FROM submissions
+                UNION SELECT stdin FROM submissions
+                UNION SELECT stdout FROM submissions
+                UNION SELECT stderr FROM submissions) texts
+         WHERE t IS NOT NULL) bytes
+ON CONFLICT (hash) DO NOTHING;
+
+UPDATE submissions
+   SET source_hash = encode(sha256(convert_to(source_code, 'UTF8')), 'hex'),
+       stdin_hash  = encode(sha256(convert_to(stdin, 'UTF8')), 'hex'),
+       stdout_hash = encode(sha256(convert_to(stdout, 'UTF8')), 'hex'),
+       stderr_hash = encode(sha256(convert_to(stderr, 'UTF8')), 'hex');
+
+ALTER TABLE submissions
+    ALTER COLUMN source_hash SET NOT NULL,
+    DROP COLUMN source_code,
+    DROP COLUMN stdin,
+    DROP COLUMN stdout,
+    DROP COLUMN stderr;
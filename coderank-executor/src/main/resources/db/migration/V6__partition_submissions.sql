@@ -0,0 +1,52 @@
+-- Range-partition submissions by month of created_at, so old months can be dropped or detached
+-- whole (see SubmissionPartitions). Unique keys of a partitioned table must contain the
+-- partition key, so the primary key becomes (id, created_at) and execution_jobs can no longer
+-- reference submissions(id): a job whose submission is gone is discarded by the worker.
+ALTER TABLE execution_jobs DROP CONSTRAINT execution_jobs_submission_id_fkey;
+
+ALTER TABLE submissions RENAME TO submissions_unpartitioned;
+ALTER TABLE submissions_unpartitioned RENAME CONSTRAINT submissions_pkey TO submissions_unpartitioned_pkey;
+
+CREATE TABLE submissions (
+    id              UUID        NOT NULL,
+    user_id         UUID,
+    language_code   VARCHAR(32) NOT NULL REFERENCES languages (code),
+    source_hash     VARCHAR(64) NOT NULL REFERENCES content_blobs (hash),
+    stdin_hash      VARCHAR(64) REFERENCES content_blobs (hash),
+    stdout_hash     VARCHAR(64) REFERENCES content_blobs (hash),
+    stderr_hash     VARCHAR(64) REFERENCES content_blobs (hash),
+    status          VARCHAR(32) NOT NULL,
+    exec_time_ms    INTEGER,
+    memory_kb       INTEGER,
+    compile_time_ms INTEGER,
+    run_time_ms     INTEGER,
+    cpu_time_ms     INTEGER,
+    created_at      TIMESTAMP   NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- created on every partition, present and future
+CREATE INDEX submissions_user_created_idx ON submissions (user_id, created_at);
+CREATE INDEX submissions_language_created_idx ON submissions (language_code, created_at);
+CREATE INDEX submissions_status_idx ON submissions (status);
+
+-- one partition per month from the oldest row to three months ahead; the application keeps
+-- creating them ahead from then on
+DO $$
+DECLARE
+    m DATE := date_trunc('month', LEAST(NOW(), COALESCE((SELECT MIN(created_at) FROM submissions_unpartitioned), NOW())));
+BEGIN
+    WHILE m <= date_trunc('month', NOW()) + INTERVAL '3 months' LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF submissions FOR VALUES FROM (%L) TO (%L)',
+                       'submissions_p' || to_char(m, 'YYYY_MM'), m, (m + INTERVAL '1 month')::date);
+        m := (m + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+INSERT INTO submissions (id, user_id, language_code, source_hash, stdin_hash, stdout_hash, stderr_hash, status,
+                         exec_time_ms, memory_kb, compile_time_ms, run_time_ms, cpu_time_ms, created_at)
+SELECT id, user_id, language_code, source_hash, stdin_hash, stdout_hash, stderr_hash, status,
+       exec_time_ms, memory_kb, compile_time_ms, run_time_ms, cpu_time_ms, created_at
+  FROM submissions_unpartitioned;
+
+DROP TABLE submissions_unpartitioned;
@@ -0,0 +1,6 @@
+-- Keyset pagination walks (created_at, id) newest first; id breaks ties between equal timestamps
+CREATE INDEX submissions_created_id_idx ON submissions (created_at, id);
+
+-- a status is shared by many rows, so listing by status needs the order in the index too
+DROP INDEX submissions_status_idx;
+CREATE INDEX submissions_status_created_idx ON submissions (status, created_at, id);
@@ -0,0 +1,2 @@
+-- Tokens carry the version current when they were issued; incrementing it revokes them all
+ALTER TABLE users ADD COLUMN token_version INT NOT NULL DEFAULT 0;
@@ -0,0 +1,51 @@
+-- Quotas shared by all nodes (app.quota.enabled). Each node takes rate tokens in leases and
+-- holds in-flight slots under its own row, refreshed while it is alive.
+CREATE TABLE quota_buckets (
+    key        TEXT PRIMARY KEY,
+    tokens     DOUBLE PRECISION NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE TABLE quota_slots (
+    key        TEXT NOT NULL,
+    node       VARCHAR(64) NOT NULL,
+    slots      INT NOT NULL,
+    expires_at TIMESTAMPTZ NOT NULL,
+    PRIMARY KEY (key, node)
+);
+CREATE INDEX quota_slots_node_idx ON quota_slots (node);
+
+-- Refills the key's bucket for the time since its last use, then takes up to p_want tokens.
+-- Returns the number taken (0 when empty).
+CREATE FUNCTION quota_take(p_key TEXT, p_per_second DOUBLE PRECISION, p_burst INT, p_want INT)
+RETURNS INT AS $$
+DECLARE
+    available DOUBLE PRECISION;
+    taken INT;
+BEGIN
+    INSERT INTO quota_buckets (key, tokens, updated_at) VALUES (p_key, p_burst, now())
+    ON CONFLICT (key) DO NOTHING;
+    SELECT LEAST(p_burst, tokens + EXTRACT(EPOCH FROM now() - updated_at) * p_per_second)
+      INTO available FROM quota_buckets WHERE key = p_key FOR UPDATE;
+    taken := LEAST(p_want, floor(available))::INT;
+    UPDATE quota_buckets SET tokens = available - taken, updated_at = now() WHERE key = p_key;
+    RETURN taken;
+END
+$$ LANGUAGE plpgsql;
+
+-- Claims one in-flight slot for p_node unless the live slots of all nodes already reach p_cap
+CREATE FUNCTION quota_claim_slot(p_key TEXT, p_node TEXT, p_cap INT, p_ttl_seconds INT)
+RETURNS BOOLEAN AS $$
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('quota_slots:' || p_key));
+    IF (SELECT COALESCE(SUM(slots), 0) FROM quota_slots WHERE key = p_key AND expires_at > now()) >= p_cap THEN
+        RETURN FALSE;
+    END IF;
+    INSERT INTO quota_slots AS s (key, node, slots, expires_at)
+    VALUES (p_key, p_node, 1, now() + make_interval(secs => p_ttl_seconds))
+    ON CONFLICT (key, node) DO UPDATE
+        SET slots = CASE WHEN s.expires_at > now() THEN s.slots + 1 ELSE 1 END,
+            expires_at = EXCLUDED.expires_at;
+    RETURN TRUE;
+END
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,88 @@
+package com.coderank.executor.execute;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CgroupStatsTest {
+
+    private static String tag(CgroupStats stats) {
+        return new String(stats.stdin(null), StandardCharsets.US_ASCII).trim();
+    }
+
+    @Test
+    void parsesTheTaggedTrailer() {
+        CgroupStats stats = new CgroupStats();
+        // clock ns / cpu usec before compiling, before running and after running, then peak bytes after compiling and at the end
+        String stderr = "warning\n" + tag(stats) + " 1000000000 100 1250000000 300000 1750000000 700000 2097152 3145728\n";
+
+        CgroupStats.Parsed p = stats.parse(stderr);
+        assertEquals("warning\n", p.stderr());
+        assertEquals(250, p.usage().compileMs());
+        assertEquals(500, p.usage().runMs());
+        assertEquals(400, p.usage().cpuTimeMs());
+        assertEquals(3072, p.usage().memoryKb());
+        assertEquals(2048, p.usage().compileMemoryKb());
+    }
+
+    @Test
+    void aRunUnderTheCompilersPeakHasNoPeakOfItsOwn() {
+        CgroupStats stats = new CgroupStats();
+        CgroupStats.Parsed p = stats.parse(tag(stats) + " 1000000000 100 1250000000 300000 1750000000 700000 104857600 104857600\n");
+        assertNull(p.usage().memoryKb());
+        assertEquals(102400, p.usage().compileMemoryKb());
+    }
+
+    @Test
+    void withoutACompileStepThePeakIsTheRuns() {
+        CgroupStats stats = new CgroupStats();
+        CgroupStats.Parsed p = stats.parse(tag(stats) + " 1000000000 100 - - 1400000000 500 - 1048576\n");
+        assertEquals(1024, p.usage().memoryKb());
+        assertNull(p.usage().compileMemoryKb());
+    }
+
+    @Test
+    void runWithoutCompileAndMissingSamples() {
+        CgroupStats stats = new CgroupStats();
+        CgroupStats.Parsed p = stats.parse(tag(stats) + " 1000000000 100 - - 1400000000 - - -\n");
+        assertEquals("", p.stderr());
+        assertNull(p.usage().compileMs());
+        assertEquals(400, p.usage().runMs());
+        assertNull(p.usage().cpuTimeMs());
+        assertNull(p.usage().memoryKb());
+        assertNull(p.usage().compileMemoryKb());
+    }
+
+    @Test
+    void untaggedLinesAreProgramOutput() {
+        CgroupStats stats = new CgroupStats();
+        String forged = "0123456789abcdef0123456789abcdef 0 0 0 0 1 1 1\n";
+        CgroupStats.Parsed p = stats.parse(forged);
+        assertEquals(forged, p.stderr());
+        assertSame(DockerRunner.Usage.NONE, p.usage());
+        assertNotEquals(tag(stats), tag(new CgroupStats()));
+    }
+
+    @Test
+    void stdinStartsWithTheTagLine() {
+        CgroupStats stats = new CgroupStats();
+        String data = new String(stats.stdin("tar".getBytes(StandardCharsets.US_ASCII)), StandardCharsets.US_ASCII);
+        assertEquals(tag(stats) + "\ntar", data);
+    }
+
+    @Test
+    void hidesTheTrailerFromLiveStderr() {
+        CgroupStats stats = new CgroupStats();
+        String tag = tag(stats);
+        List<String> seen = new ArrayList<>();
+        OutputListener live = stats.hiding((stream, chunk) -> seen.add(stream + ":" + chunk));
+        live.onOutput("stderr", "oops " + tag.substring(0, 5));
+        live.onOutput("stdout", "hi");
+        live.onOutput("stderr", tag.substring(5) + " 1 2 - - 3 4 5\n");
+        assertEquals(List.of("stderr:oops ", "stdout:hi"), seen);
+    }
+}
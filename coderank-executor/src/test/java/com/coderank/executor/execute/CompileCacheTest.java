@@ -0,0 +1,125 @@
+package com.coderank.executor.execute;
+
+import com.coderank.executor.language.ExecLanguage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompileCacheTest {
+
+    @TempDir
+    Path dir;
+
+    private CompileCache cache(long maxBytes, long maxArtifactBytes, int maxNegativeEntries) {
+        CompileCacheProperties props = new CompileCacheProperties();
+        props.setEnabled(true);
+        props.setDir(dir.toString());
+        props.setMaxBytes(maxBytes);
+        props.setMaxArtifactBytes(maxArtifactBytes);
+        props.setMaxNegativeEntries(maxNegativeEntries);
+        return new CompileCache(props);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedArtifactsPastTheByteCap() {
+        CompileCache cache = cache(10, 10, 10);
+        cache.putArtifact("a", new byte[4]);
+        cache.putArtifact("b", new byte[4]);
+        assertNotNull(cache.getArtifact("a")); // b is now the least recently used
+        cache.putArtifact("c", new byte[4]);
+
+        assertNotNull(cache.getArtifact("a"));
+        assertNull(cache.getArtifact("b"));
+        assertNotNull(cache.getArtifact("c"));
+        assertTrue(Files.exists(cache.dir().resolve("a.tar")));
+        assertFalse(Files.exists(cache.dir().resolve("b.tar")));
+    }
+
+    @Test
+    void replacingAnArtifactCountsItsBytesOnce() {
+        CompileCache cache = cache(10, 10, 10);
+        cache.putArtifact("a", new byte[6]);
+        cache.putArtifact("a", new byte[6]);
+        cache.putArtifact("b", new byte[4]);
+        assertArrayEquals(new byte[6], cache.getArtifact("a"));
+        assertNotNull(cache.getArtifact("b"));
+    }
+
+    @Test
+    void skipsArtifactsAboveTheSizeLimit() {
+        CompileCache cache = cache(100, 8, 10);
+        cache.putArtifact("big", new byte[9]);
+        assertNull(cache.getArtifact("big"));
+    }
+
+    @Test
+    void keepsABoundedNumberOfCompileErrors() {
+        CompileCache cache = cache(10, 10, 2);
+        cache.putFailure("x", "", "error x");
+        cache.putFailure("y", "", "error y");
+        assertEquals("error x", cache.getFailure("x").stderr()); // y is now the least recently used
+        cache.putFailure("z", "", "error z");
+
+        assertNotNull(cache.getFailure("x"));
+        assertNull(cache.getFailure("y"));
+        assertEquals(new CompileCache.Failure("", "error z"), cache.getFailure("z"));
+    }
+
+    @Test
+    void dropsOnlyItsOwnFilesLeftByAPreviousProcess() throws IOException {
+        Path gone = Files.createDirectory(dir.resolve("coderank-cc-1"));
+        Files.createFile(gone.resolve(".lock"));
+        Files.write(gone.resolve("old.tar"), new byte[3]);
+        Files.write(gone.resolve("old123.part"), new byte[3]);
+        Files.write(gone.resolve("notes.txt"), new byte[3]);
+        Path emptied = Files.createDirectory(dir.resolve("coderank-cc-2"));
+        Files.createFile(emptied.resolve(".lock"));
+        Files.write(emptied.resolve("x.tar"), new byte[3]);
+        Files.write(dir.resolve("unrelated.tar"), new byte[3]);
+
+        CompileCache cache = cache(10, 10, 10);
+        assertFalse(Files.exists(gone.resolve("old.tar")));
+        assertFalse(Files.exists(gone.resolve("old123.part")));
+        assertTrue(Files.exists(gone.resolve("notes.txt")));
+        assertFalse(Files.exists(emptied));
+        assertTrue(Files.exists(dir.resolve("unrelated.tar")));
+        assertNull(cache.getArtifact("old"));
+    }
+
+    @Test
+    void processesSharingTheDirKeepTheirOwnFiles() {
+        CompileCache first = cache(10, 10, 10);
+        first.putArtifact("a", new byte[4]);
+        CompileCache second = cache(10, 10, 10);
+        second.putArtifact("b", new byte[4]);
+
+        assertNotEquals(first.dir(), second.dir());
+        assertNotNull(first.getArtifact("a"));
+        assertNull(second.getArtifact("a"));
+        second.shutdown();
+        assertFalse(Files.exists(second.dir()));
+        assertNotNull(first.getArtifact("a"));
+        first.shutdown();
+    }
+
+    @Test
+    void keyFollowsWhatTheCompileDependsOn() {
+        ExecLanguage lang = new ExecLanguage();
+        lang.setCode("cpp");
+        lang.setImage("gcc:13");
+        lang.setCompileCmd("g++ main.cpp");
+        lang.setRunCmd("./a.out");
+        String key = CompileCache.key(lang, "int main(){}");
+
+        lang.setRunCmd("./a.out --fast");
+        assertEquals(key, CompileCache.key(lang, "int main(){}"));
+        lang.setImage("gcc:14");
+        assertNotEquals(key, CompileCache.key(lang, "int main(){}"));
+        assertNotEquals(CompileCache.key(lang, "int main(){}"), CompileCache.key(lang, "int main(){ }"));
+    }
+}
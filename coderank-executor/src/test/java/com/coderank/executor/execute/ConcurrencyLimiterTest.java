@@ -0,0 +1,90 @@
+package com.coderank.executor.execute;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimiterTest {
+    private static final long START_NS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private static ConcurrentExecProperties props() {
+        ConcurrentExecProperties p = new ConcurrentExecProperties();
+        p.setMaxConcurrent(4);
+        p.setLimitFloor(2);
+        p.setLimitCeiling(6);
+        p.setLatencyTolerance(2.0);
+        p.setMaxLoadPerCore(1.0);
+        return p;
+    }
+
+    private static void fill(ConcurrencyLimiter l) throws InterruptedException {
+        while (l.tryAcquire(0, TimeUnit.MILLISECONDS)) { }
+    }
+
+    @Test
+    void growsWhileFullAndFast() throws InterruptedException {
+        ConcurrencyLimiter l = new ConcurrencyLimiter(props(), () -> 0.1);
+        for (int i = 0; i < 50; i++) {
+            fill(l);
+            l.release("python", System.nanoTime(), START_NS);
+        }
+        assertEquals(6, l.limit());
+    }
+
+    @Test
+    void aSlowProgramIsNotASlowHost() throws InterruptedException {
+        ConcurrencyLimiter l = new ConcurrencyLimiter(props(), () -> 0.1);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(l.tryAcquire(0, TimeUnit.MILLISECONDS));
+            l.release("python", System.nanoTime(), START_NS);
+        }
+        // each sleeps just under the time limit, in a sandbox that started as quickly as ever
+        for (int i = 0; i < 10; i++) {
+            assertTrue(l.tryAcquire(0, TimeUnit.MILLISECONDS));
+            long startNs = System.nanoTime();
+            Thread.sleep(20);
+            l.release("python", startNs, START_NS);
+        }
+        assertEquals(4, l.limit());
+        // nor did they stretch the baseline: a slow start still cuts
+        assertTrue(l.tryAcquire(0, TimeUnit.MILLISECONDS));
+        l.release("python", System.nanoTime(), 3 * START_NS);
+        assertEquals(3, l.limit());
+    }
+
+    @Test
+    void cutsWhenSandboxesStartSlowly() throws InterruptedException {
+        ConcurrencyLimiter l = new ConcurrencyLimiter(props(), () -> 0.1);
+        assertTrue(l.tryAcquire(0, TimeUnit.MILLISECONDS));
+        l.release("python", System.nanoTime(), START_NS);
+        assertTrue(l.tryAcquire(0, TimeUnit.MILLISECONDS));
+        l.release("python", System.nanoTime(), 3 * START_NS);
+        assertEquals(3, l.limit());
+    }
+
+    @Test
+    void cutsOnHostLoadButNotBelowFloor() throws InterruptedException {
+        ConcurrencyLimiter l = new ConcurrencyLimiter(props(), () -> 4.0);
+        for (int i = 0; i < 20; i++) {
+            assertTrue(l.tryAcquire(0, TimeUnit.MILLISECONDS));
+            l.release("python", System.nanoTime(), START_NS);
+        }
+        assertEquals(2, l.limit());
+        assertTrue(l.tryAcquire(0, TimeUnit.MILLISECONDS));
+        assertTrue(l.tryAcquire(0, TimeUnit.MILLISECONDS));
+        assertFalse(l.tryAcquire(0, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void fixedWhenNotAdaptive() throws InterruptedException {
+        ConcurrentExecProperties p = props();
+        p.setAdaptive(false);
+        ConcurrencyLimiter l = new ConcurrencyLimiter(p, () -> 4.0);
+        fill(l);
+        assertEquals(4, l.inFlight());
+        l.release("python", System.nanoTime(), START_NS);
+        assertEquals(4, l.limit());
+    }
+}
@@ -0,0 +1,76 @@
+package com.coderank.executor.execute;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class DockerRunnerTest {
+
+    @TempDir
+    Path dir;
+
+    // what the batch script reports for a program that printed `output`
+    private String digest(String output) throws IOException, InterruptedException {
+        Path out = dir.resolve("o");
+        Files.writeString(out, output, StandardCharsets.UTF_8);
+        Process p = new ProcessBuilder("sh", "-c", DockerRunner.DIGEST_FN + "crdigest \"$0\"", out.toString())
+                .redirectErrorStream(true).start();
+        String line = new String(p.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+        assertEquals(0, p.waitFor(), line);
+        return line;
+    }
+
+    private static String report(int exit, long outBytes, long errBytes, String digest, String out, String err) {
+        return "nonce 3 " + exit + " 12 " + outBytes + " " + errBytes + " " + digest + " "
+                + (out.isEmpty() ? "-" : DockerRunner.b64(out)) + " " + (err.isEmpty() ? "-" : DockerRunner.b64(err));
+    }
+
+    @Test
+    void scriptDigestMatchesTheExpectedOutputUpToTrailingWhitespace() throws Exception {
+        assumeTrue(new ProcessBuilder("sh", "-c", "command -v sha256sum").start().waitFor() == 0);
+        String printed = "1 2 3  \r\nok\t\n\n\n";
+        String line = report(0, printed.length(), 0, digest(printed), printed, "");
+
+        assertEquals(Boolean.TRUE, DockerRunner.parseCase(line, 1024, "1 2 3\nok").passed());
+        assertEquals(Boolean.TRUE, DockerRunner.parseCase(line, 1024, "1 2 3\r\nok\r\n").passed());
+        assertEquals(Boolean.FALSE, DockerRunner.parseCase(line, 1024, "1 2 3\nok\nmore").passed());
+        assertEquals(Boolean.FALSE, DockerRunner.parseCase(line, 1024, " 1 2 3\nok").passed());
+
+        String empty = report(0, 0, 0, digest(""), "", "");
+        assertEquals(Boolean.TRUE, DockerRunner.parseCase(empty, 1024, "\n").passed());
+        String unicode = "héllo wörld\n";
+        assertEquals(Boolean.TRUE, DockerRunner.parseCase(report(0, 14, 0, digest(unicode), unicode, ""), 1024, "héllo wörld").passed());
+    }
+
+    @Test
+    void parsesReportFields() {
+        String sha = "0".repeat(64);
+        DockerRunner.CaseResult c = DockerRunner.parseCase(report(124, 10, 2000, "3 " + sha, "out", "err"), 1024, null);
+        assertEquals(3, c.index());
+        assertEquals(ExecStatus.TIMEOUT, c.status());
+        assertNull(c.passed());
+        assertEquals("out", c.stdout());
+        assertEquals("err", c.stderr());
+        assertEquals(12, c.execTimeMs());
+        assertTrue(c.truncated());
+
+        DockerRunner.CaseResult failed = DockerRunner.parseCase(report(1, 0, 0, "0 " + sha, "", ""), 1024, "x");
+        assertEquals(ExecStatus.RUNTIME_ERROR, failed.status());
+        assertEquals(Boolean.FALSE, failed.passed());
+        assertEquals("", failed.stdout());
+        assertFalse(failed.truncated());
+    }
+
+    @Test
+    void normalizesLikeTheScript() {
+        assertEquals("a\n\nb", DockerRunner.normalized("a \t\n\nb\r\n\n"));
+        assertEquals("", DockerRunner.normalized(" \n\n"));
+    }
+}
@@ -0,0 +1,192 @@
+package com.coderank.executor.execute;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EngineApiDockerClientTest {
+
+    @TempDir
+    Path dir;
+
+    private ServerSocketChannel server;
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void stop() throws IOException {
+        if (server != null) server.close();
+    }
+
+    // a daemon answering each request line ("POST /v1.41/...") with the response the handler returns (null: never)
+    private EngineApiDockerClient daemon(Function<String, String> handler) throws IOException {
+        Path socket = dir.resolve("docker.sock");
+        server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(UnixDomainSocketAddress.of(socket));
+        Thread.ofVirtual().start(() -> {
+            try {
+                while (true) {
+                    SocketChannel c = server.accept();
+                    Thread.ofVirtual().start(() -> serve(c, handler));
+                }
+            } catch (IOException closed) {
+                // test over
+            }
+        });
+        DockerClientProperties props = new DockerClientProperties();
+        props.setSocketPath(socket.toString());
+        props.setCallTimeoutSeconds(1);
+        return new EngineApiDockerClient(props, new ExecProperties());
+    }
+
+    private void serve(SocketChannel c, Function<String, String> handler) {
+        try (c; InputStream in = Channels.newInputStream(c)) {
+            while (true) {
+                String line = readLine(in);
+                if (line == null) return;
+                int length = 0;
+                String header;
+                while (!(header = readLine(in)).isEmpty()) {
+                    if (header.toLowerCase().startsWith("content-length:")) length = Integer.parseInt(header.substring(15).trim());
+                }
+                in.readNBytes(length);
+                requests.add(line.substring(0, line.lastIndexOf(' ')));
+                String response = handler.apply(line);
+                if (response == null) {
+                    Thread.sleep(10_000);
+                    return;
+                }
+                c.write(ByteBuffer.wrap(response.getBytes(StandardCharsets.UTF_8)));
+            }
+        } catch (IOException | InterruptedException ignored) {
+            // client went away
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream b = new ByteArrayOutputStream();
+        int ch;
+        while ((ch = in.read()) != -1 && ch != '\n') if (ch != '\r') b.write(ch);
+        return ch == -1 && b.size() == 0 ? null : b.toString(StandardCharsets.UTF_8);
+    }
+
+    private static String response(int status, String body) {
+        return "HTTP/1.1 " + status + " X\r\nContent-Type: application/json\r\nContent-Length: "
+                + body.getBytes(StandardCharsets.UTF_8).length + "\r\n\r\n" + body;
+    }
+
+    private static String chunked(String... chunks) {
+        StringBuilder b = new StringBuilder("HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\n");
+        for (String c : chunks) b.append(Integer.toHexString(c.length())).append("\r\n").append(c).append("\r\n");
+        return b.append("0\r\n\r\n").toString();
+    }
+
+    @Test
+    void pullsAMissingImageAndRetriesTheCreate() throws IOException {
+        List<String> created = new ArrayList<>();
+        EngineApiDockerClient docker = daemon(line -> {
+            if (line.startsWith("POST /v1.41/containers/create")) {
+                created.add(line);
+                return created.size() == 1 ? response(404, "{\"message\":\"No such image\"}") : response(201, "{\"Id\":\"c1\"}");
+            }
+            if (line.startsWith("POST /v1.41/images/create")) return chunked("{\"status\":\"Pulling\"}\n", "{\"status\":\"Done\"}\n");
+            if (line.startsWith("POST /v1.41/containers/c1/start")) return "HTTP/1.1 204 No Content\r\n\r\n";
+            return response(500, "{}");
+        });
+
+        assertTrue(docker.startDetached("warm-1", "registry:5000/team/python:3.12", new SandboxLimits(1, "256m"),
+                List.of("sleep", "60"), 5));
+        assertEquals(List.of(
+                "POST /v1.41/containers/create?name=warm-1",
+                "POST /v1.41/images/create?fromImage=registry%3A5000%2Fteam%2Fpython&tag=3.12",
+                "POST /v1.41/containers/create?name=warm-1",
+                "POST /v1.41/containers/c1/start"), requests);
+    }
+
+    @Test
+    void failedPullFailsTheStart() throws IOException {
+        EngineApiDockerClient docker = daemon(line -> line.startsWith("POST /v1.41/images/create")
+                ? chunked("{\"status\":\"Pulling\"}\n", "{\"error\":\"manifest unknown\"}\n")
+                : response(404, "{\"message\":\"No such image\"}"));
+
+        assertFalse(docker.startDetached("warm-1", "nope", new SandboxLimits(1, "256m"), List.of("sleep", "60"), 5));
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    void aHungDaemonTimesOut() throws IOException {
+        EngineApiDockerClient docker = daemon(line -> null);
+
+        long start = System.nanoTime();
+        assertFalse(docker.isRunning("c1"));
+        docker.remove("c1");
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(elapsedMs >= 1900 && elapsedMs < 5000, "took " + elapsedMs + " ms");
+    }
+
+    @Test
+    void startDetachedStopsAtItsOwnTimeout() throws IOException {
+        EngineApiDockerClient docker = daemon(line -> line.startsWith("POST /v1.41/containers/create")
+                ? response(404, "{\"message\":\"No such image\"}")
+                : null);
+
+        long start = System.nanoTime();
+        assertFalse(docker.startDetached("warm-1", "python", new SandboxLimits(1, "256m"), List.of("sleep", "60"), 2));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(elapsedMs >= 1900 && elapsedMs < 4000, "took " + elapsedMs + " ms");
+    }
+
+    @Test
+    void splitsImageReferences() {
+        assertArrayEquals(new String[]{"python", "latest"}, EngineApiDockerClient.splitReference("python"));
+        assertArrayEquals(new String[]{"python", "3.12-slim"}, EngineApiDockerClient.splitReference("python:3.12-slim"));
+        assertArrayEquals(new String[]{"localhost:5000/gcc", "latest"}, EngineApiDockerClient.splitReference("localhost:5000/gcc"));
+        assertArrayEquals(new String[]{"gcc", "sha256:ab"}, EngineApiDockerClient.splitReference("gcc@sha256:ab"));
+    }
+
+    // an attach stream frame: stream id, three pad bytes, big-endian length, payload
+    private static byte[] frame(int stream, String payload) {
+        byte[] p = payload.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer b = ByteBuffer.allocate(8 + p.length).put((byte) stream).put(new byte[3]).putInt(p.length).put(p);
+        return b.array();
+    }
+
+    @Test
+    void demuxSplitsFramesCutAtAnyByte() throws IOException {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        raw.writeBytes(frame(1, "hel"));
+        raw.writeBytes(frame(2, "oops"));
+        raw.writeBytes(frame(9, "ignored"));
+        raw.writeBytes(frame(1, "lo"));
+        byte[] bytes = raw.toByteArray();
+
+        EngineApiDockerClient.Demux demux = new EngineApiDockerClient.Demux();
+        for (int i = 0; i < bytes.length; i += 3) {
+            demux.feed(ByteBuffer.wrap(bytes, i, Math.min(3, bytes.length - i)));
+        }
+        demux.end();
+
+        InputStream out = demux.stream(1);
+        assertEquals(5, out.available());
+        assertEquals("hello", new String(out.readAllBytes(), StandardCharsets.UTF_8));
+        assertEquals("oops", new String(demux.stream(2).readAllBytes(), StandardCharsets.UTF_8));
+        assertEquals(-1, out.read());
+    }
+}
@@ -0,0 +1,59 @@
+package com.coderank.executor.execute;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FairShareQueueTest {
+
+    private static ScheduledTask task(String tenant, int weight, List<String> ran) {
+        return new ScheduledTask(tenant, weight, null, () -> ran.add(tenant));
+    }
+
+    @Test
+    void lightTenantIsNotStuckBehindAFlood() {
+        List<String> ran = new ArrayList<>();
+        FairShareQueue q = new FairShareQueue();
+        for (int i = 0; i < 20; i++) assertTrue(q.offer(task("heavy", 1, ran)));
+        q.offer(task("light", 1, ran));
+
+        q.poll().run();
+        q.poll().run();
+        assertEquals(List.of("heavy", "light"), ran);
+        assertEquals(19, q.size());
+        assertEquals(1, q.tenants());
+    }
+
+    @Test
+    void weightsSetTheShareOfStarts() {
+        List<String> ran = new ArrayList<>();
+        FairShareQueue q = new FairShareQueue();
+        for (int i = 0; i < 10; i++) {
+            q.offer(task("admin", 2, ran));
+            q.offer(task("user", 1, ran));
+        }
+        for (int i = 0; i < 6; i++) q.poll().run();
+        assertEquals(List.of("admin", "admin", "user", "admin", "admin", "user"), ran);
+    }
+
+    @Test
+    void emptiedTenantsAreForgotten() {
+        FairShareQueue q = new FairShareQueue();
+        assertNull(q.poll());
+        Runnable a = task("a", 1, new ArrayList<>());
+        assertTrue(q.offer(a));
+        assertTrue(q.offer(task("b", 1, new ArrayList<>())));
+        assertEquals(2, q.tenants());
+
+        assertSame(a, q.peek());
+        assertSame(a, q.poll());
+        assertEquals(1, q.size());
+        assertNotNull(q.poll());
+        assertNull(q.poll());
+        assertTrue(q.isEmpty());
+        assertEquals(0, q.tenants());
+    }
+}
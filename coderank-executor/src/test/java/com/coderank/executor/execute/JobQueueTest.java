@@ -0,0 +1,77 @@
+package com.coderank.executor.execute;
+
+import com.coderank.executor.submit.BlobStore;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class JobQueueTest {
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final BlobStore blobs = mock(BlobStore.class);
+    private final JobQueue queue = new JobQueue(jdbc, blobs);
+
+    @Test
+    void claimLeasesTheOldestQueuedJob() {
+        UUID id = UUID.randomUUID();
+        when(jdbc.queryForList(contains("FOR UPDATE SKIP LOCKED"), eq(UUID.class), eq("w1"), eq(30)))
+                .thenReturn(List.of(id), List.of());
+
+        assertEquals(id, queue.claim("w1", 30));
+        assertNull(queue.claim("w1", 30));
+    }
+
+    @Test
+    void completeAndRequeueOnlyTouchTheWorkersOwnJob() {
+        UUID id = UUID.randomUUID();
+        when(jdbc.update(startsWith("DELETE FROM execution_jobs"), eq(id), eq("w1"))).thenReturn(1);
+        when(jdbc.update(contains("attempts = attempts - 1"), eq(id), eq("w2"))).thenReturn(0);
+
+        assertTrue(queue.complete(id, "w1"));
+        assertFalse(queue.complete(id, "w2"));
+        assertFalse(queue.requeue(id, "w2"));
+    }
+
+    @Test
+    void reapWritesNoBlobsWhenNoJobIsDead() {
+        when(jdbc.update(contains("attempts < ?"), eq(3))).thenReturn(2);
+        when(jdbc.queryForObject(contains("SELECT EXISTS"), eq(Boolean.class), eq(3))).thenReturn(false);
+
+        assertEquals(2, queue.reapExpired(3));
+        verifyNoInteractions(blobs);
+        verify(jdbc, never()).update(contains("WITH dead"), any(), any(), any());
+    }
+
+    @Test
+    void reapFailsDeadJobsWithTheLostMessage() {
+        when(jdbc.update(contains("attempts < ?"), eq(3))).thenReturn(0);
+        when(jdbc.queryForObject(contains("SELECT EXISTS"), eq(Boolean.class), eq(3))).thenReturn(true);
+        when(jdbc.update(contains("WITH dead"), eq(3), anyString(), anyString())).thenReturn(1);
+
+        assertEquals(1, queue.reapExpired(3));
+        verify(blobs).put("");
+        verify(blobs).put("Execution lost: worker stopped responding");
+        verify(jdbc).update(contains("WITH dead"), eq(3), eq(BlobStore.hash("")),
+                eq(BlobStore.hash("Execution lost: worker stopped responding")));
+    }
+
+    @Test
+    void activeCountIsTakenUnderTheUsersLock() {
+        UUID user = UUID.randomUUID();
+        when(jdbc.queryForObject(contains("user_id = ?"), eq(Integer.class), eq(user))).thenReturn(2);
+        when(jdbc.queryForObject(contains("user_id IS NULL"), eq(Integer.class))).thenReturn(5);
+
+        assertEquals(2, queue.lockActive(user));
+        assertEquals(5, queue.lockActive(null));
+        InOrder order = inOrder(jdbc);
+        order.verify(jdbc).queryForList(contains("pg_advisory_xact_lock"), eq("execution_jobs:" + user));
+        order.verify(jdbc).queryForObject(contains("user_id = ?"), eq(Integer.class), eq(user));
+    }
+}
@@ -0,0 +1,51 @@
+package com.coderank.executor.execute;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LiveOutputTest {
+
+    // records the name of every event sent
+    private static final class RecordingEmitter extends SseEmitter {
+        final List<String> names = new CopyOnWriteArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            String text = builder.build().iterator().next().getData().toString();
+            names.add(text.substring("event:".length(), text.indexOf('\n')));
+        }
+
+        @Override
+        public void complete() {
+            done.countDown();
+        }
+    }
+
+    @Test
+    void firstEventSurvivesAFullBuffer() throws InterruptedException {
+        ExecProperties props = new ExecProperties();
+        props.setStreamBufferChunks(2);
+        LiveOutput live = new LiveOutput(props, new SimpleMeterRegistry());
+        try {
+            RecordingEmitter emitter = new RecordingEmitter();
+            LiveOutput.Relay relay = live.open(emitter);
+            for (int i = 0; i < 5; i++) relay.onOutput("stdout", "x");
+            relay.start("accepted", "id");
+            relay.finish("result", "done");
+
+            assertTrue(emitter.done.await(5, TimeUnit.SECONDS));
+            assertEquals(List.of("accepted", "dropped", "stdout", "stdout", "result"), emitter.names);
+        } finally {
+            live.shutdown();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.coderank.executor.execute;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutputCaptureTest {
+
+    // reads the whole stream the way the pump does, max bytes per call
+    private static OutputCapture capture(byte[] data, long limit, int max, OutputListener listener) throws IOException {
+        OutputCapture c = new OutputCapture(limit);
+        InputStream in = new ByteArrayInputStream(data);
+        while (!c.overflowed() && c.readFrom(in, max, "stdout", listener) >= 0) {
+            // keep reading
+        }
+        c.end("stdout", listener);
+        return c;
+    }
+
+    private static byte[] pattern(int n) {
+        byte[] b = new byte[n];
+        for (int i = 0; i < n; i++) b[i] = (byte) ('a' + i % 26);
+        return b;
+    }
+
+    @Test
+    void outputOfExactlyTheLimitIsNotAnOverflow() throws IOException {
+        OutputCapture c = capture(pattern(100), 100, 64, OutputListener.NONE);
+        assertFalse(c.overflowed());
+        assertArrayEquals(pattern(100), c.bytes());
+    }
+
+    @Test
+    void bytesPastTheLimitAreDiscarded() throws IOException {
+        OutputCapture c = capture(pattern(101), 100, 64, OutputListener.NONE);
+        assertTrue(c.overflowed());
+        assertArrayEquals(pattern(100), c.bytes());
+        assertEquals(0, c.readFrom(new ByteArrayInputStream(pattern(5)), 5, "stdout", OutputListener.NONE));
+    }
+
+    @Test
+    void spansSeveralChunks() throws IOException {
+        int n = OutputCapture.CHUNK * 2 + 123;
+        OutputCapture c = capture(pattern(n), n, 7000, OutputListener.NONE);
+        assertFalse(c.overflowed());
+        assertArrayEquals(pattern(n), c.bytes());
+        c.release();
+    }
+
+    @Test
+    void forwardsCharactersSplitAcrossReads() throws IOException {
+        String text = "héllo wörld €";
+        StringBuilder live = new StringBuilder();
+        OutputCapture c = capture(text.getBytes(StandardCharsets.UTF_8), 1000, 1,
+                (stream, chunk) -> live.append(chunk));
+        assertEquals(text, live.toString());
+        assertEquals(text, c.text());
+    }
+}
@@ -0,0 +1,82 @@
+package com.coderank.executor.execute;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamPumpTest {
+
+    private final StreamPump pump = new StreamPump();
+    private final CountDownLatch killed = new CountDownLatch(1);
+
+    @AfterEach
+    void stop() {
+        pump.shutdown();
+    }
+
+    // a CLI-style process: polled pipes, exited once `exited` is true
+    private static SandboxProcess process(InputStream out, InputStream err, boolean exited) {
+        return new SandboxProcess() {
+            @Override public OutputStream stdin() { return OutputStream.nullOutputStream(); }
+            @Override public InputStream stdout() { return out; }
+            @Override public InputStream stderr() { return err; }
+            @Override public boolean waitFor(long timeout, TimeUnit unit) { return exited; }
+            @Override public int exitValue() { return 0; }
+            @Override public void destroy() {}
+        };
+    }
+
+    private static InputStream text(String s) {
+        return new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private StreamPump.Session start(SandboxProcess p, OutputCapture out, OutputCapture err, long timeoutMs) {
+        return pump.start(p, out, err, OutputListener.NONE, killed::countDown, timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    void capturesBothStreamsToTheEnd() throws InterruptedException {
+        OutputCapture out = new OutputCapture(1024);
+        OutputCapture err = new OutputCapture(1024);
+        StreamPump.Session s = start(process(text("hello"), text("warn"), true), out, err, 5_000);
+
+        assertTrue(s.await(5, TimeUnit.SECONDS));
+        assertEquals(StreamPump.End.EOF, s.end());
+        assertEquals("hello", out.text());
+        assertEquals("warn", err.text());
+        assertEquals(1, killed.getCount());
+    }
+
+    @Test
+    void killsASandboxThatFloodsItsOutput() throws InterruptedException {
+        OutputCapture out = new OutputCapture(10);
+        StreamPump.Session s = start(process(text("x".repeat(1000)), text(""), true), out, new OutputCapture(10), 5_000);
+
+        assertTrue(s.await(5, TimeUnit.SECONDS));
+        assertEquals(StreamPump.End.OVERFLOW, s.end());
+        assertEquals("x".repeat(10), out.text());
+        assertTrue(killed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void killsASandboxPastItsDeadline() throws Exception {
+        PipedInputStream silent = new PipedInputStream(new PipedOutputStream());
+        long start = System.nanoTime();
+        StreamPump.Session s = start(process(silent, text(""), false), new OutputCapture(10), new OutputCapture(10), 200);
+
+        assertTrue(s.await(5, TimeUnit.SECONDS));
+        assertEquals(StreamPump.End.DEADLINE, s.end());
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200));
+        assertTrue(killed.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,69 @@
+package com.coderank.executor.execute;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SubmissionPartitionsTest {
+
+    private static final LocalDate MONTH = LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1);
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+
+    // attached: the partitions of submissions; present: every submissions_p table, detached ones included
+    private SubmissionPartitions partitions(int retentionMonths, String retention, List<String> attached, List<String> present) {
+        when(jdbc.queryForObject(contains("pg_try_advisory_xact_lock"), eq(Boolean.class), any())).thenReturn(true);
+        when(jdbc.queryForList(contains("pg_inherits"), eq(String.class))).thenReturn(attached);
+        when(jdbc.queryForList(contains("FROM pg_class WHERE relkind"), eq(String.class))).thenReturn(present);
+        TransactionTemplate tx = mock(TransactionTemplate.class);
+        when(tx.execute(any())).thenAnswer(inv -> ((TransactionCallback<?>) inv.getArgument(0)).doInTransaction(null));
+        doCallRealMethod().when(tx).executeWithoutResult(any());
+
+        PartitionProperties props = new PartitionProperties();
+        props.setRetentionMonths(retentionMonths);
+        props.setRetention(retention);
+        return new SubmissionPartitions(props, jdbc, tx);
+    }
+
+    private static String partition(int monthsAgo) {
+        return "submissions_p" + MONTH.minusMonths(monthsAgo).format(DateTimeFormatter.ofPattern("yyyy_MM"));
+    }
+
+    @Test
+    void droppingAMonthCollectsTheBlobsOnlyItUsed() {
+        partitions(2, "drop", List.of(partition(4), partition(2), partition(0)), List.of(partition(2), partition(0)))
+                .maintain();
+
+        verify(jdbc).execute("DROP TABLE " + partition(4));
+        verify(jdbc, never()).execute("DROP TABLE " + partition(2));
+        // a month's grace before the oldest kept partition
+        verify(jdbc).update("DELETE FROM content_blobs WHERE last_used < ?", MONTH.minusMonths(3));
+    }
+
+    @Test
+    void detachedMonthsKeepTheirBlobsUntilDropped() {
+        partitions(2, "detach", List.of(partition(3), partition(0)), List.of(partition(6), partition(3), partition(0)))
+                .maintain();
+
+        verify(jdbc).execute("ALTER TABLE submissions DETACH PARTITION " + partition(3));
+        verify(jdbc).update("DELETE FROM content_blobs WHERE last_used < ?", MONTH.minusMonths(7));
+    }
+
+    @Test
+    void noBlobsGoWithoutRetention() {
+        partitions(0, "drop", List.of(partition(4)), List.of(partition(4))).maintain();
+
+        verify(jdbc, never()).execute(startsWith("DROP TABLE"));
+        verify(jdbc, never()).update(startsWith("DELETE FROM content_blobs"), any(LocalDate.class));
+    }
+}
@@ -0,0 +1,97 @@
+package com.coderank.executor.execute;
+
+import com.coderank.executor.submit.BlobStore;
+import com.coderank.executor.submit.Submission;
+import com.coderank.executor.submit.SubmissionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SubmissionWriterTest {
+
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private final List<String> written = new CopyOnWriteArrayList<>();
+
+    // a writer whose inserts are answered by outcome(languages of the rows): null succeeds
+    private SubmissionWriter writer(Function<List<String>, RuntimeException> outcome) {
+        // the blobs of a batch are written first, in its transaction: failing there fails the batch
+        BlobStore blobs = mock(BlobStore.class);
+        doAnswer(inv -> {
+            Collection<Submission> rows = inv.getArgument(0);
+            List<String> langs = rows.stream().map(Submission::getLanguageCode).toList();
+            RuntimeException e = outcome.apply(langs);
+            if (e != null) throw e;
+            written.addAll(langs);
+            return null;
+        }).when(blobs).store(anyCollection());
+        TransactionTemplate tx = mock(TransactionTemplate.class);
+        when(tx.execute(any())).thenAnswer(inv -> ((TransactionCallback<?>) inv.getArgument(0)).doInTransaction(null));
+        doCallRealMethod().when(tx).executeWithoutResult(any());
+
+        SubmissionWriterProperties props = new SubmissionWriterProperties();
+        props.setRetryBackoffMs(10);
+        props.setRetryMaxBackoffMs(40);
+        return new SubmissionWriter(props, mock(SubmissionRepository.class), blobs, mock(JdbcTemplate.class), tx, meters);
+    }
+
+    private static Submission submission(String lang) {
+        Submission s = new Submission();
+        s.setLanguageCode(lang);
+        s.setStatus(ExecStatus.SUCCESS.name());
+        return s;
+    }
+
+    private double dropped(String reason) {
+        return meters.counter("coderank.submissions.writer.dropped", "reason", reason).count();
+    }
+
+    @Test
+    void keepsRowsThroughAnOutage() throws InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+        SubmissionWriter w = writer(langs -> calls.incrementAndGet() <= 3
+                ? new DataAccessResourceFailureException("connection refused") : null);
+        w.write(submission("python"));
+        w.write(submission("java"));
+        w.shutdown();
+
+        assertEquals(Set.of("python", "java"), Set.copyOf(written));
+        assertEquals(2, written.size());
+        assertEquals(0, dropped("rejected") + dropped("unavailable"));
+        assertTrue(meters.counter("coderank.submissions.writer.retries").count() >= 1);
+        assertEquals(0, meters.get("coderank.submissions.writer.failing").gauge().value());
+    }
+
+    @Test
+    void dropsOnlyTheRowTheDatabaseRejects() throws InterruptedException {
+        SubmissionWriter w = writer(langs -> langs.contains("bad") ? new DataIntegrityViolationException("check") : null);
+        for (String lang : List.of("python", "bad", "java")) w.write(submission(lang));
+        w.shutdown();
+
+        assertTrue(written.containsAll(List.of("python", "java")));
+        assertFalse(written.contains("bad"));
+        assertEquals(1, dropped("rejected"));
+    }
+
+    @Test
+    void classifiesOutagesApartFromRejectedRows() {
+        assertTrue(SubmissionWriter.unavailable(new DataAccessResourceFailureException("down")));
+        assertTrue(SubmissionWriter.unavailable(new CannotCreateTransactionException("pool")));
+        assertFalse(SubmissionWriter.unavailable(new DataIntegrityViolationException("fk")));
+    }
+}
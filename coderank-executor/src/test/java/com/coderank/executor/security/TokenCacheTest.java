@@ -0,0 +1,106 @@
+package com.coderank.executor.security;
+
+import com.coderank.executor.user.User;
+import com.coderank.executor.user.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenCacheTest {
+    private static final String SECRET = "UmFuZG9tU3VwZXJMb25nU2VjcmV0S2V5MTIzNDU2Nzg5MDEyMzQ1Njc4OTA=";
+
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+
+    private static User user(UUID id) {
+        User u = new User();
+        u.setId(id);
+        u.setEmail(id + "@example.com");
+        u.setRole("USER");
+        return u;
+    }
+
+    private static JwtService.Verified verified(User u, long expiresAtMs) {
+        return new JwtService.Verified(u, expiresAtMs);
+    }
+
+    private double count(String result) {
+        return meters.counter("coderank.auth.token.cache", "result", result).count();
+    }
+
+    @Test
+    void hitsUntilTheEntryExpires() {
+        TokenCache cache = new TokenCache(100, 30, meters);
+        User u = user(UUID.randomUUID());
+        long now = System.currentTimeMillis();
+        cache.put("live", verified(u, now + 60_000));
+        cache.put("expired", verified(u, now - 1));
+
+        assertSame(u, cache.get("live"));
+        assertNull(cache.get("expired"));
+        assertNull(cache.get("unknown"));
+        assertEquals(1, count("hit"));
+        assertEquals(2, count("miss"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void staysNearItsCap() {
+        TokenCache cache = new TokenCache(100, 30, meters);
+        long expires = System.currentTimeMillis() + 60_000;
+        for (int i = 0; i < 1_000; i++) cache.put("t" + i, verified(user(UUID.randomUUID()), expires));
+        assertTrue(cache.size() <= 100, "size " + cache.size());
+        cache.put("last", verified(user(UUID.randomUUID()), expires));
+        assertNotNull(cache.get("last"));
+    }
+
+    @Test
+    void evictsAllTokensOfAUser() {
+        TokenCache cache = new TokenCache(100, 30, meters);
+        UUID id = UUID.randomUUID();
+        long expires = System.currentTimeMillis() + 60_000;
+        cache.put("a", verified(user(id), expires));
+        cache.put("b", verified(user(id), expires));
+        cache.put("other", verified(user(UUID.randomUUID()), expires));
+
+        cache.evictUser(id);
+        assertNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("other"));
+    }
+
+    @Test
+    void revokedTokensAreRefusedOnceEvicted() {
+        AtomicInteger version = new AtomicInteger();
+        AtomicInteger reads = new AtomicInteger();
+        UserRepository users = (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("findTokenVersion")) {
+                        reads.incrementAndGet();
+                        return Optional.of(version.get());
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        JwtService jwt = new JwtService("coderank", 30, SECRET);
+        TokenCache cache = new TokenCache(100, 30, meters);
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwt, cache, users);
+        User u = user(UUID.randomUUID());
+        String token = jwt.generateToken(u);
+
+        assertNotNull(filter.authenticate(token));
+        assertNotNull(filter.authenticate(token));
+        assertEquals(1, reads.get()); // the second request was served from the cache
+
+        // what a revocation does: bump the version and evict on the node that handled it
+        version.incrementAndGet();
+        cache.evictUser(u.getId());
+        assertNull(filter.authenticate(token));
+        assertEquals(2, reads.get());
+        assertNull(filter.authenticate(token)); // refused tokens are not cached
+    }
+}
@@ -0,0 +1,130 @@
+package com.coderank.executor.submit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BlobStoreTest {
+
+    // a content_blobs row as bound by the insert: parameter index -> value
+    private final Map<String, Map<Integer, Object>> table = new HashMap<>();
+    private final List<List<String>> batches = new ArrayList<>();
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final BlobStore blobs = new BlobStore(jdbc);
+
+    @SuppressWarnings("unchecked")
+    BlobStoreTest() {
+        when(jdbc.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(inv -> {
+                    Collection<Map.Entry<String, String>> items = inv.getArgument(1);
+                    ParameterizedPreparedStatementSetter<Map.Entry<String, String>> setter = inv.getArgument(3);
+                    List<String> hashes = new ArrayList<>();
+                    for (Map.Entry<String, String> item : items) {
+                        Map<Integer, Object> row = new HashMap<>();
+                        setter.setValues(recording(row), item);
+                        table.putIfAbsent((String) row.get(1), row);
+                        hashes.add((String) row.get(1));
+                    }
+                    batches.add(hashes);
+                    return new int[0][];
+                });
+        when(jdbc.query(anyString(), any(RowMapper.class), anyString())).thenAnswer(inv -> {
+            Map<Integer, Object> row = table.get((String) inv.getArgument(2));
+            if (row == null) return List.of();
+            return List.of(((RowMapper<Object>) inv.getArgument(1)).mapRow(reading(row), 0));
+        });
+    }
+
+    private static PreparedStatement recording(Map<Integer, Object> row) {
+        return (PreparedStatement) Proxy.newProxyInstance(BlobStoreTest.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                    if (!method.getName().startsWith("set") || args == null || args.length != 2) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    row.put((Integer) args[0], args[1]);
+                    return null;
+                });
+    }
+
+    // the row as read back: data and gzip columns
+    private static ResultSet reading(Map<Integer, Object> row) {
+        return (ResultSet) Proxy.newProxyInstance(BlobStoreTest.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getBytes" -> row.get(2);
+                    case "getBoolean" -> row.get(3);
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    @Test
+    void writesEachDistinctTextOnce() {
+        Submission a = new Submission();
+        a.setSourceCode("print(1)");
+        a.setStdin("");
+        a.setStdout("1\n");
+        Submission b = new Submission();
+        b.setSourceCode("print(1)");
+        b.setStdin("");
+        b.setStdout("1\n");
+
+        blobs.store(List.of(a, b));
+        assertEquals(1, batches.size());
+        List<String> hashes = batches.get(0);
+        assertEquals(3, hashes.size());
+        assertEquals(hashes.stream().sorted().toList(), hashes); // one insert order for every writer
+        assertEquals(a.getSourceHash(), b.getSourceHash());
+        assertTrue(hashes.contains(BlobStore.hash("print(1)")));
+    }
+
+    @Test
+    void compressesTextThatShrinks() {
+        String text = "line of output\n".repeat(500);
+        String hash = blobs.put(text);
+
+        Map<Integer, Object> row = table.get(hash);
+        assertEquals(Boolean.TRUE, row.get(3));
+        assertTrue(((byte[]) row.get(2)).length < text.length());
+        assertEquals(text.getBytes(StandardCharsets.UTF_8).length, row.get(4));
+        assertEquals(text, blobs.text(hash));
+    }
+
+    @Test
+    void storesShortTextAsIs() {
+        String text = "héllo";
+        String hash = blobs.put(text);
+
+        Map<Integer, Object> row = table.get(hash);
+        assertEquals(Boolean.FALSE, row.get(3));
+        assertArrayEquals(text.getBytes(StandardCharsets.UTF_8), (byte[]) row.get(2));
+        assertEquals(6, row.get(4));
+        assertEquals(text, blobs.text(hash));
+    }
+
+    @Test
+    void stampsTheMonthItIsWrittenFor() {
+        String hash = blobs.put("x");
+        assertEquals(LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1), table.get(hash).get(5));
+    }
+
+    @Test
+    void missingBlobIsAnError() {
+        assertThrows(IllegalStateException.class, () -> blobs.text(BlobStore.hash("never stored")));
+    }
+}
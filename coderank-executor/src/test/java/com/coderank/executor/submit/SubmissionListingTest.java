@@ -0,0 +1,76 @@
+package com.coderank.executor.submit;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SubmissionListingTest {
+
+    private record Stored(UUID id, LocalDateTime createdAt) {}
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final SubmissionListing listing = new SubmissionListing(jdbc);
+
+    // the rows the query returns, mapped through the listing's own row mapper
+    @SuppressWarnings("unchecked")
+    private void returns(Stored... rows) {
+        when(jdbc.query(anyString(), any(RowMapper.class), any(Object[].class))).thenAnswer(inv -> {
+            RowMapper<Object> mapper = inv.getArgument(1);
+            List<Object> out = new ArrayList<>();
+            for (int i = 0; i < rows.length; i++) out.add(mapper.mapRow(resultSet(rows[i]), i));
+            return out;
+        });
+    }
+
+    private static ResultSet resultSet(Stored row) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getObject(1, UUID.class)).thenReturn(row.id());
+        when(rs.getString(3)).thenReturn("python");
+        when(rs.getString(4)).thenReturn("SUCCESS");
+        when(rs.getObject(10, LocalDateTime.class)).thenReturn(row.createdAt());
+        return rs;
+    }
+
+    private Object[] argsOfLastQuery() {
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbc, atLeastOnce()).query(anyString(), any(RowMapper.class), args.capture());
+        return args.getValue();
+    }
+
+    @Test
+    void cursorContinuesAfterTheLastRowExactly() {
+        LocalDateTime t = LocalDateTime.of(2026, 3, 1, 10, 15, 30, 123_456_000);
+        Stored a = new Stored(UUID.randomUUID(), t.plusSeconds(2));
+        Stored b = new Stored(UUID.randomUUID(), t);
+        Stored c = new Stored(UUID.randomUUID(), t.minusSeconds(1));
+        returns(a, b, c);
+
+        SubmissionPage first = listing.page(2, null, null, null, null);
+        assertEquals(List.of(a.id(), b.id()), first.getItems().stream().map(SubmissionSummary::getId).toList());
+        assertNotNull(first.getNextCursor());
+        assertArrayEquals(new Object[]{3}, argsOfLastQuery());
+
+        returns(c);
+        SubmissionPage second = listing.page(2, first.getNextCursor(), null, "python", null);
+        assertNull(second.getNextCursor());
+        assertArrayEquals(new Object[]{"python", t, b.id(), 3}, argsOfLastQuery());
+    }
+
+    @Test
+    void rejectsAForgedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> listing.page(10, "not-a-cursor", null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> listing.page(10, "", null, null, null));
+    }
+}
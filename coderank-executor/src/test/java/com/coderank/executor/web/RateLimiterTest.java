@@ -0,0 +1,85 @@
+package com.coderank.executor.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void burstThenOneTokenPerInterval() {
+        AtomicLong now = new AtomicLong(0);
+        RateLimiter l = new RateLimiter(now::get);
+        for (int i = 0; i < 3; i++) {
+            RateLimiter.Decision d = l.acquire("u", 60, 3);
+            assertTrue(d.allowed());
+            assertEquals(2 - i, d.remaining());
+        }
+        RateLimiter.Decision refused = l.acquire("u", 60, 3);
+        assertFalse(refused.allowed());
+        assertEquals(SECOND, refused.retryAfterNanos());
+
+        now.addAndGet(SECOND); // 60 per minute: one token back
+        assertTrue(l.acquire("u", 60, 3).allowed());
+        assertFalse(l.acquire("u", 60, 3).allowed());
+    }
+
+    @Test
+    void noDoubleBurstAcrossAMinuteBoundary() {
+        AtomicLong now = new AtomicLong(59 * SECOND);
+        RateLimiter l = new RateLimiter(now::get);
+        int allowed = 0;
+        for (int i = 0; i < 20; i++) if (l.acquire("u", 10, 10).allowed()) allowed++;
+        now.addAndGet(2 * SECOND);
+        for (int i = 0; i < 20; i++) if (l.acquire("u", 10, 10).allowed()) allowed++;
+        assertEquals(10, allowed);
+    }
+
+    @Test
+    void evictsOnlyRefilledBuckets() {
+        AtomicLong now = new AtomicLong(0);
+        RateLimiter l = new RateLimiter(now::get);
+        l.acquire("idle", 60, 5);
+        for (int i = 0; i < 5; i++) l.acquire("busy", 60, 5);
+        now.addAndGet(SECOND);
+
+        assertEquals(1, l.evictIdle());
+        assertEquals(1, l.size());
+        // the busy key keeps its debt: 4 tokens still missing
+        assertTrue(l.acquire("busy", 60, 5).allowed());
+        assertFalse(l.acquire("busy", 60, 5).allowed());
+    }
+
+    @Test
+    void concurrentCallersNeverExceedTheBurst() throws InterruptedException {
+        RateLimiter l = new RateLimiter(() -> 0L);
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 1000; i++) {
+                    if (l.acquire("shared", 60, 100).allowed()) allowed.incrementAndGet();
+                    if (i % 100 == 0) l.evictIdle();
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(100, allowed.get());
+    }
+}